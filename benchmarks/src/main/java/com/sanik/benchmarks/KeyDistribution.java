@@ -0,0 +1,60 @@
+package com.sanik.benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Distributions of benchmark keys. Keys are generated before measurement, so benchmark doesn't
+ * measure random generator
+ */
+public enum KeyDistribution {
+  UNIFORM {
+    @Override
+    public int[] generate(int count, int keySpace, long seed) {
+      SplittableRandom random = new SplittableRandom(seed);
+      int[] keys = new int[count];
+      for (int i = 0; i < count; i++) {
+        keys[i] = random.nextInt(keySpace);
+      }
+      return keys;
+    }
+  },
+  ZIPFIAN {
+    @Override
+    public int[] generate(int count, int keySpace, long seed) {
+      //cumulative probabilities of ranks, rank r has weight 1 / r^exponent
+      double[] cumulative = new double[keySpace];
+      double sum = 0;
+      for (int rank = 1; rank <= keySpace; rank++) {
+        sum += 1 / Math.pow(rank, ZIPF_EXPONENT);
+        cumulative[rank - 1] = sum;
+      }
+      //ranks are shuffled over key space, so popular keys aren't neighbours
+      int[] keyOfRank = new int[keySpace];
+      SplittableRandom random = new SplittableRandom(seed);
+      for (int i = 0; i < keySpace; i++) {
+        int j = random.nextInt(i + 1);
+        keyOfRank[i] = keyOfRank[j];
+        keyOfRank[j] = i;
+      }
+      int[] keys = new int[count];
+      for (int i = 0; i < count; i++) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+        keys[i] = keyOfRank[rank >= 0 ? rank : Math.min(-rank - 1, keySpace - 1)];
+      }
+      return keys;
+    }
+  };
+
+  public static final double ZIPF_EXPONENT = 0.99;
+
+  /**
+   * Method to generate keys
+   *
+   * @param count    - number of keys
+   * @param keySpace - keys are in range from 0 to keySpace exclusive
+   * @param seed     - seed of random generator
+   * @return generated keys
+   */
+  public abstract int[] generate(int count, int keySpace, long seed);
+}
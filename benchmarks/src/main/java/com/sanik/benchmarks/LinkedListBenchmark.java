@@ -0,0 +1,67 @@
+package com.sanik.benchmarks;
+
+import com.sanik.cache.LinkedList;
+import com.sanik.cache.Node;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of LinkedList.moveNodeWithStep depending on list size and step. Moved nodes are picked
+ * randomly before measurement
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkedListBenchmark {
+  static final int PICKS = 1 << 16;
+  static final int MASK = PICKS - 1;
+
+  @Param({"16", "256", "4096", "65536"})
+  int size;
+
+  @Param({"1", "16"})
+  int step;
+
+  LinkedList<Integer> list;
+  Node<Integer>[] picks;
+  int index;
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    list = new LinkedList<>();
+    for (int i = 0; i < size; i++) {
+      list.addLast(i);
+    }
+    List<Node<Integer>> nodes = new ArrayList<>(size);
+    list.forEachNode(nodes::add);
+    SplittableRandom random = new SplittableRandom(42);
+    picks = (Node<Integer>[]) new Node<?>[PICKS];
+    for (int i = 0; i < PICKS; i++) {
+      picks[i] = nodes.get(random.nextInt(size));
+    }
+  }
+
+  @Benchmark
+  public int moveNodeWithStep() {
+    list.moveNodeWithStep(step, picks[index++ & MASK]);
+    return list.size();
+  }
+}
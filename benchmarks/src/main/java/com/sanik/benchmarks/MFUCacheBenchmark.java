@@ -0,0 +1,123 @@
+package com.sanik.benchmarks;
+
+import com.sanik.cache.ConcurrentMFUCache;
+import com.sanik.cache.MFUCache;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of get and put under 1, 4, 16 and 64 threads. Every thread walks over its own part of
+ * pregenerated keys, key space is four times bigger than capacity, so both hits and misses happen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MFUCacheBenchmark {
+  static final int CAPACITY = 1 << 14;
+  static final int KEY_SPACE = CAPACITY * 4;
+  static final int KEYS = 1 << 20;
+  static final int MASK = KEYS - 1;
+
+  @Param({"ZIPFIAN", "UNIFORM"})
+  KeyDistribution distribution;
+
+  @Param({"single", "concurrent"})
+  String cacheType;
+
+  int[] keys;
+  MFUCache<Integer, Integer> cache;
+
+  @State(Scope.Thread)
+  public static class ThreadIndex {
+    int index = (int) (Thread.currentThread().getId() * 0x9E3779B9L) & MASK;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    keys = distribution.generate(KEYS, KEY_SPACE, 42);
+    cache = "single".equals(cacheType)
+        ? new MFUCache<>(CAPACITY, 1, Long.MAX_VALUE)
+        : new ConcurrentMFUCache<>(CAPACITY, 1, Long.MAX_VALUE);
+    for (int i = 0; i < KEYS && cache.size() < CAPACITY; i++) {
+      cache.put(keys[i], keys[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cache.close();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Integer get_1(ThreadIndex thread) {
+    return get(thread);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Integer get_4(ThreadIndex thread) {
+    return get(thread);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Integer get_16(ThreadIndex thread) {
+    return get(thread);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public Integer get_64(ThreadIndex thread) {
+    return get(thread);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void put_1(ThreadIndex thread) {
+    put(thread);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void put_4(ThreadIndex thread) {
+    put(thread);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void put_16(ThreadIndex thread) {
+    put(thread);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void put_64(ThreadIndex thread) {
+    put(thread);
+  }
+
+  private Integer get(ThreadIndex thread) {
+    return cache.get(keys[thread.index++ & MASK]);
+  }
+
+  private void put(ThreadIndex thread) {
+    int key = keys[thread.index++ & MASK];
+    cache.put(key, key);
+  }
+}
@@ -0,0 +1,68 @@
+package com.sanik.benchmarks;
+
+import com.sanik.objectpool.ObjectPoolImpl;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of borrow and release round trip. Pool is big enough for all threads, so borrow waits only
+ * for verification of released objects
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectPoolBenchmark {
+  static final int POOL_SIZE = 128;
+
+  ObjectPoolImpl<StringBuilder> pool;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    pool = new ObjectPoolImpl<>(StringBuilder::new, POOL_SIZE, POOL_SIZE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    pool.close();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public StringBuilder borrowRelease_1() {
+    return borrowRelease();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public StringBuilder borrowRelease_4() {
+    return borrowRelease();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public StringBuilder borrowRelease_16() {
+    return borrowRelease();
+  }
+
+  private StringBuilder borrowRelease() {
+    StringBuilder object = pool.borrow();
+    pool.release(object);
+    return object;
+  }
+}
@@ -0,0 +1,82 @@
+package com.sanik.benchmarks;
+
+import com.sanik.cache.MFUCache;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Effect of step on cost of read-through access and on hit ratio. Missing key is put like by
+ * loading cache, hits and misses are reported as additional counters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepBenchmark {
+  static final int CAPACITY = 1 << 12;
+  static final int KEY_SPACE = CAPACITY * 8;
+  static final int KEYS = 1 << 20;
+  static final int MASK = KEYS - 1;
+
+  @Param({"1", "4", "16", "64", "256"})
+  int step;
+
+  @Param({"ZIPFIAN", "UNIFORM"})
+  KeyDistribution distribution;
+
+  int[] keys;
+  int index;
+  MFUCache<Integer, Integer> cache;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class HitCounters {
+    public long hits;
+    public long misses;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    keys = distribution.generate(KEYS, KEY_SPACE, 42);
+    cache = new MFUCache<>(CAPACITY, step, Long.MAX_VALUE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cache.close();
+  }
+
+  @Benchmark
+  public Integer readThrough(HitCounters counters) {
+    int key = keys[index++ & MASK];
+    Integer value = cache.get(key);
+    if (value == null) {
+      counters.misses++;
+      cache.put(key, key);
+      return key;
+    }
+    counters.hits++;
+    return value;
+  }
+}
@@ -0,0 +1,58 @@
+package com.sanik.simulator;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Least frequently used key is evicted, least recently used one among keys of the same frequency.
+ * Frequency of evicted key is forgotten
+ */
+public class LfuPolicy implements Policy {
+  private final int capacity;
+  private final Map<Long, Integer> frequencies = new HashMap<>();
+  //Keys by frequency in order of their last access
+  private final Map<Integer, LinkedHashSet<Long>> buckets = new HashMap<>();
+  private int minFrequency;
+
+  public LfuPolicy(int capacity) {
+    this.capacity = capacity;
+  }
+
+  @Override
+  public boolean record(long key) {
+    Integer frequency = frequencies.get(key);
+    if (frequency != null) {
+      LinkedHashSet<Long> bucket = buckets.get(frequency);
+      bucket.remove(key);
+      if (bucket.isEmpty()) {
+        buckets.remove(frequency);
+        if (minFrequency == frequency) {
+          minFrequency++;
+        }
+      }
+      frequencies.put(key, frequency + 1);
+      buckets.computeIfAbsent(frequency + 1, f -> new LinkedHashSet<>()).add(key);
+      return true;
+    }
+    if (frequencies.size() >= capacity) {
+      LinkedHashSet<Long> bucket = buckets.get(minFrequency);
+      Iterator<Long> victim = bucket.iterator();
+      frequencies.remove(victim.next());
+      victim.remove();
+      if (bucket.isEmpty()) {
+        buckets.remove(minFrequency);
+      }
+    }
+    frequencies.put(key, 1);
+    buckets.computeIfAbsent(1, f -> new LinkedHashSet<>()).add(key);
+    minFrequency = 1;
+    return false;
+  }
+
+  @Override
+  public String name() {
+    return "lfu(capacity=" + capacity + ")";
+  }
+}
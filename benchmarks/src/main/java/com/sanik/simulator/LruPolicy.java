@@ -0,0 +1,36 @@
+package com.sanik.simulator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used key is evicted
+ */
+public class LruPolicy implements Policy {
+  private final int capacity;
+  private final Map<Long, Boolean> keys;
+
+  public LruPolicy(int capacity) {
+    this.capacity = capacity;
+    this.keys = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+        return size() > LruPolicy.this.capacity;
+      }
+    };
+  }
+
+  @Override
+  public boolean record(long key) {
+    if (keys.get(key) != null) {
+      return true;
+    }
+    keys.put(key, Boolean.TRUE);
+    return false;
+  }
+
+  @Override
+  public String name() {
+    return "lru(capacity=" + capacity + ")";
+  }
+}
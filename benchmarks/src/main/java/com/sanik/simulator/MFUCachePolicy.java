@@ -0,0 +1,48 @@
+package com.sanik.simulator;
+
+import com.sanik.cache.MFUCache;
+import com.sanik.cache.Ordering;
+import com.sanik.cache.admission.TinyLfuAdmittor;
+
+/**
+ * Replays trace against MFUCache with given capacity and step
+ */
+public class MFUCachePolicy implements Policy {
+  private final MFUCache<Long, Boolean> cache;
+  private final String name;
+
+  public MFUCachePolicy(int capacity, int step, Ordering ordering) {
+    this(capacity, step, ordering, false);
+  }
+
+  /**
+   * @param admission - true to put TinyLFU admission in front of the cache
+   */
+  public MFUCachePolicy(int capacity, int step, Ordering ordering, boolean admission) {
+    this.cache = new MFUCache<>(capacity, step, Long.MAX_VALUE, ordering);
+    if (admission) {
+      cache.setAdmittor(TinyLfuAdmittor::new);
+    }
+    this.name = "mfu-" + ordering.name().toLowerCase() + (admission ? "-tinylfu" : "")
+        + "(capacity=" + capacity + ",step=" + step + ")";
+  }
+
+  @Override
+  public boolean record(long key) {
+    if (cache.get(key) != null) {
+      return true;
+    }
+    cache.put(key, Boolean.TRUE);
+    return false;
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public void close() {
+    cache.close();
+  }
+}
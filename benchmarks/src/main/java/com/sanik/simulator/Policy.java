@@ -0,0 +1,25 @@
+package com.sanik.simulator;
+
+/**
+ * Eviction strategy, which is replayed by simulator. Only keys are kept, value doesn't matter for
+ * hit ratio
+ */
+public interface Policy extends AutoCloseable {
+
+  /**
+   * Method to access key. Missing key is admitted like by read-through cache
+   *
+   * @param key - accessed key
+   * @return true, if key was in cache
+   */
+  boolean record(long key);
+
+  /**
+   * Returns name with parameters, e.g. {@code lru(capacity=1000)}
+   */
+  String name();
+
+  @Override
+  default void close() {
+  }
+}
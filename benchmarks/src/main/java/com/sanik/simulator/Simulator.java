@@ -0,0 +1,180 @@
+package com.sanik.simulator;
+
+import com.sanik.cache.Ordering;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays access trace against grid of policies and prints hit ratio and throughput of every
+ * policy as CSV. Trace is read once in chunks, every chunk is replayed by all policies, so memory
+ * doesn't depend on length of trace.
+ * <pre>
+ * java -cp target/benchmarks.jar com.sanik.simulator.Simulator trace.txt.gz \
+ *     --capacities 1000,10000 --steps 1,4,16 --policies mfu,mfu-tinylfu,lru,lfu,w-tinylfu
+ * </pre>
+ */
+public class Simulator {
+  static final int CHUNK = 1 << 16;
+
+  private final List<Policy> policies;
+  private final long[] hits;
+  private final long[] nanos;
+  private long accesses;
+
+  public Simulator(List<Policy> policies) {
+    this.policies = policies;
+    this.hits = new long[policies.size()];
+    this.nanos = new long[policies.size()];
+  }
+
+  /**
+   * Method to replay whole trace
+   *
+   * @param reader - source of keys
+   */
+  public void replay(TraceReader reader) throws IOException {
+    long[] keys = new long[CHUNK];
+    int count;
+    while ((count = reader.read(keys)) > 0) {
+      replay(keys, count);
+    }
+  }
+
+  /**
+   * Method to replay chunk of keys. Time is measured for whole chunk, so clock isn't read on every
+   * access
+   */
+  public void replay(long[] keys, int count) {
+    for (int i = 0; i < policies.size(); i++) {
+      Policy policy = policies.get(i);
+      long policyHits = 0;
+      long start = System.nanoTime();
+      for (int j = 0; j < count; j++) {
+        if (policy.record(keys[j])) {
+          policyHits++;
+        }
+      }
+      nanos[i] += System.nanoTime() - start;
+      hits[i] += policyHits;
+    }
+    accesses += count;
+  }
+
+  public long getAccesses() {
+    return accesses;
+  }
+
+  public long getHits(int policy) {
+    return hits[policy];
+  }
+
+  public double getHitRatio(int policy) {
+    return accesses == 0 ? 0 : (double) hits[policy] / accesses;
+  }
+
+  /**
+   * Prints one CSV line per policy: name, accesses, hits, hit ratio and accesses per second
+   */
+  public void print(PrintStream out) {
+    out.println("policy,accesses,hits,hitRatio,opsPerSecond");
+    for (int i = 0; i < policies.size(); i++) {
+      double opsPerSecond = nanos[i] == 0 ? 0 : accesses * 1e9 / nanos[i];
+      out.printf(Locale.ROOT, "\"%s\",%d,%d,%.6f,%.0f%n", policies.get(i).name(), accesses, hits[i],
+          getHitRatio(i), opsPerSecond);
+    }
+  }
+
+  /**
+   * Creates policies for every capacity. Step grid is used only by MFUCache policies
+   *
+   * @param names      - names of policies: mfu, mfu-tinylfu, mfu-frequency, lru, lfu, w-tinylfu
+   * @param capacities - capacities of caches
+   * @param steps      - steps of MFUCache
+   * @return policies in order of capacities, then names, then steps
+   */
+  public static List<Policy> createPolicies(List<String> names, int[] capacities, int[] steps) {
+    List<Policy> result = new ArrayList<>();
+    for (int capacity : capacities) {
+      for (String name : names) {
+        switch (name) {
+          case "mfu":
+            for (int step : steps) {
+              result.add(new MFUCachePolicy(capacity, step, Ordering.STEP));
+            }
+            break;
+          case "mfu-tinylfu":
+            for (int step : steps) {
+              result.add(new MFUCachePolicy(capacity, step, Ordering.STEP, true));
+            }
+            break;
+          case "mfu-frequency":
+            for (int step : steps) {
+              result.add(new MFUCachePolicy(capacity, step, Ordering.FREQUENCY));
+            }
+            break;
+          case "lru":
+            result.add(new LruPolicy(capacity));
+            break;
+          case "lfu":
+            result.add(new LfuPolicy(capacity));
+            break;
+          case "w-tinylfu":
+            result.add(new WTinyLfuPolicy(capacity, 1));
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown policy " + name);
+        }
+      }
+    }
+    return result;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: Simulator <trace> [--column N] [--capacities 1000,10000] "
+          + "[--steps 1,4,16] [--policies mfu,mfu-tinylfu,mfu-frequency,lru,lfu,w-tinylfu]");
+      System.exit(1);
+    }
+    Path trace = Paths.get(args[0]);
+    int column = 0;
+    int[] capacities = {1_000, 10_000};
+    int[] steps = {1, 4, 16};
+    List<String> names = Arrays.asList("mfu", "lru", "lfu", "w-tinylfu");
+    for (int i = 1; i < args.length - 1; i += 2) {
+      switch (args[i]) {
+        case "--column":
+          column = Integer.parseInt(args[i + 1]);
+          break;
+        case "--capacities":
+          capacities = parseInts(args[i + 1]);
+          break;
+        case "--steps":
+          steps = parseInts(args[i + 1]);
+          break;
+        case "--policies":
+          names = Arrays.asList(args[i + 1].split(","));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+    List<Policy> policies = createPolicies(names, capacities, steps);
+    Simulator simulator = new Simulator(policies);
+    try (TraceReader reader = new TraceReader(trace, column)) {
+      simulator.replay(reader);
+    } finally {
+      policies.forEach(Policy::close);
+    }
+    simulator.print(System.out);
+  }
+
+  private static int[] parseInts(String list) {
+    return Arrays.stream(list.split(",")).mapToInt(Integer::parseInt).toArray();
+  }
+}
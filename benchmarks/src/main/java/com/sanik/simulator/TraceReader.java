@@ -0,0 +1,81 @@
+package com.sanik.simulator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams keys of access trace. Trace is text file, one access per line, key is in given column of
+ * whitespace separated line. Numeric keys are used as is, other keys are hashed. Files ending with
+ * .gz are decompressed on the fly. Lines, which are empty or start with #, are skipped
+ */
+public class TraceReader implements Closeable {
+  private final BufferedReader reader;
+  private final int column;
+
+  /**
+   * @param trace  - path to trace file
+   * @param column - column of key, starting from 0
+   */
+  public TraceReader(Path trace, int column) throws IOException {
+    InputStream input = Files.newInputStream(trace);
+    if (trace.getFileName().toString().endsWith(".gz")) {
+      input = new GZIPInputStream(input, 1 << 16);
+    }
+    this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+    this.column = column;
+  }
+
+  /**
+   * Method to read next chunk of keys. Only one chunk is kept in memory, whatever size of trace is
+   *
+   * @param keys - buffer for keys
+   * @return number of read keys, 0 at the end of trace
+   */
+  public int read(long[] keys) throws IOException {
+    int count = 0;
+    String line;
+    while (count < keys.length && (line = reader.readLine()) != null) {
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      keys[count++] = parseKey(trimmed);
+    }
+    return count;
+  }
+
+  private long parseKey(String line) {
+    String[] tokens = line.split("\\s+");
+    if (column >= tokens.length) {
+      throw new IllegalArgumentException("Line has no column " + column + ": " + line);
+    }
+    String token = tokens[column];
+    try {
+      return Long.parseLong(token);
+    } catch (NumberFormatException e) {
+      return hash(token);
+    }
+  }
+
+  //64-bit FNV-1a, so different string keys rarely collide
+  private static long hash(String token) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < token.length(); i++) {
+      hash ^= token.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
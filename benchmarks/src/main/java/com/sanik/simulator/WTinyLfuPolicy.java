@@ -0,0 +1,125 @@
+package com.sanik.simulator;
+
+import com.sanik.cache.admission.FrequencySketch;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Window TinyLFU. New keys get into small LRU window, key evicted from window competes with victim
+ * of main segmented LRU, and the one, which is estimated as more frequent by Count-Min sketch,
+ * stays. Main region has probation part for new keys and protected part for keys hit twice
+ */
+public class WTinyLfuPolicy implements Policy {
+  private final int capacity;
+  private final int windowCapacity;
+  private final int protectedCapacity;
+  private final Map<Long, Entry> entries = new HashMap<>();
+  private final Entry window = Entry.sentinel();
+  private final Entry probation = Entry.sentinel();
+  private final Entry protectedRegion = Entry.sentinel();
+  private final FrequencySketch<Long> sketch;
+  private int windowSize;
+  private int protectedSize;
+
+  /**
+   * @param capacity      - maximal number of keys
+   * @param windowPercent - size of window region in percents of capacity
+   */
+  public WTinyLfuPolicy(int capacity, int windowPercent) {
+    this.capacity = capacity;
+    this.windowCapacity = Math.max(1, capacity * windowPercent / 100);
+    this.protectedCapacity = (int) ((capacity - windowCapacity) * 0.8);
+    this.sketch = new FrequencySketch<>(capacity);
+  }
+
+  @Override
+  public boolean record(long key) {
+    sketch.increment(key);
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      onHit(entry);
+      return true;
+    }
+    entry = new Entry(key);
+    entries.put(key, entry);
+    entry.region = window;
+    entry.linkFirst(window);
+    windowSize++;
+    if (windowSize > windowCapacity) {
+      Entry candidate = window.previous;
+      candidate.unlink();
+      windowSize--;
+      admit(candidate);
+    }
+    return false;
+  }
+
+  private void onHit(Entry entry) {
+    entry.unlink();
+    if (entry.region == probation) {
+      entry.region = protectedRegion;
+      protectedSize++;
+      if (protectedSize > protectedCapacity) {
+        Entry demoted = protectedRegion.previous;
+        demoted.unlink();
+        demoted.region = probation;
+        demoted.linkFirst(probation);
+        protectedSize--;
+      }
+    }
+    entry.linkFirst(entry.region);
+  }
+
+  private void admit(Entry candidate) {
+    candidate.region = probation;
+    candidate.linkFirst(probation);
+    if (entries.size() <= capacity) {
+      return;
+    }
+    Entry victim = probation.previous;
+    if (victim == candidate && protectedRegion.previous != protectedRegion) {
+      victim = protectedRegion.previous;
+    }
+    Entry evicted = sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+    evicted.unlink();
+    if (evicted.region == protectedRegion) {
+      protectedSize--;
+    }
+    entries.remove(evicted.key);
+  }
+
+  @Override
+  public String name() {
+    return "w-tinylfu(capacity=" + capacity + ",window=" + windowCapacity + ")";
+  }
+
+  static final class Entry {
+    final long key;
+    Entry previous;
+    Entry next;
+    Entry region;
+
+    Entry(long key) {
+      this.key = key;
+    }
+
+    static Entry sentinel() {
+      Entry sentinel = new Entry(0);
+      sentinel.previous = sentinel;
+      sentinel.next = sentinel;
+      return sentinel;
+    }
+
+    void linkFirst(Entry head) {
+      previous = head;
+      next = head.next;
+      head.next.previous = this;
+      head.next = this;
+    }
+
+    void unlink() {
+      previous.next = next;
+      next.previous = previous;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.sanik.simulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LfuPolicyTest {
+
+  @Test
+  public void evictsLeastFrequentlyUsedKey() {
+    LfuPolicy policy = new LfuPolicy(2);
+    assertFalse(policy.record(1));
+    assertTrue(policy.record(1));
+    assertFalse(policy.record(2));
+    //2 is used less often than 1, so it's evicted, though it's more recent
+    assertFalse(policy.record(3));
+    assertFalse(policy.record(2));
+    assertTrue(policy.record(1));
+    assertEquals("lfu(capacity=2)", policy.name());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedKeyOfSameFrequency() {
+    LfuPolicy policy = new LfuPolicy(2);
+    //1 got frequency 2 before 2, so it's evicted by 3, and 3 is evicted by 1
+    assertEquals(3, LruPolicyTest.hits(policy, 1, 2, 1, 2, 3, 2, 1));
+    assertTrue(policy.record(2));
+  }
+
+  @Test
+  public void keepsHotKeyOnScan() {
+    LfuPolicy policy = new LfuPolicy(10);
+    assertEquals(5, LruPolicyTest.hits(policy, LruPolicyTest.scanTrace()));
+  }
+}
@@ -0,0 +1,49 @@
+package com.sanik.simulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LruPolicyTest {
+
+  @Test
+  public void evictsLeastRecentlyUsedKey() {
+    LruPolicy policy = new LruPolicy(2);
+    assertFalse(policy.record(1));
+    assertFalse(policy.record(2));
+    assertTrue(policy.record(1));
+    assertFalse(policy.record(3));
+    assertTrue(policy.record(1));
+    assertFalse(policy.record(2));
+    assertEquals("lru(capacity=2)", policy.name());
+  }
+
+  @Test
+  public void losesHotKeyOnScan() {
+    LruPolicy policy = new LruPolicy(10);
+    assertEquals(4, hits(policy, scanTrace()));
+  }
+
+  //hot key is used five times, then twenty other keys are used once and hot key is used again
+  static long[] scanTrace() {
+    long[] trace = new long[26];
+    for (int i = 0; i < 5; i++) {
+      trace[i] = 1;
+    }
+    for (int i = 0; i < 20; i++) {
+      trace[5 + i] = 100 + i;
+    }
+    trace[25] = 1;
+    return trace;
+  }
+
+  static int hits(Policy policy, long... trace) {
+    int hits = 0;
+    for (long key : trace) {
+      if (policy.record(key)) {
+        hits++;
+      }
+    }
+    return hits;
+  }
+}
@@ -0,0 +1,81 @@
+package com.sanik.simulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TraceReaderTest {
+
+  @Test
+  public void readsKeysInChunks(@TempDir Path directory) throws IOException {
+    Path trace = directory.resolve("trace.txt");
+    Files.writeString(trace, "# time key\n1 13\n\n2 94\n  3 34  \n# end\n4 13\n5 7\n");
+    long[] keys = new long[2];
+    try (TraceReader reader = new TraceReader(trace, 1)) {
+      assertEquals(2, reader.read(keys));
+      assertArrayEquals(new long[]{13, 94}, keys);
+      assertEquals(2, reader.read(keys));
+      assertArrayEquals(new long[]{34, 13}, keys);
+      assertEquals(1, reader.read(keys));
+      assertEquals(7, keys[0]);
+      assertEquals(0, reader.read(keys));
+    }
+  }
+
+  @Test
+  public void hashesTextKeys(@TempDir Path directory) throws IOException {
+    Path trace = directory.resolve("trace.txt");
+    Files.writeString(trace, "Kyiv\nLviv\nKyiv\n");
+    long[] keys = new long[4];
+    try (TraceReader reader = new TraceReader(trace, 0)) {
+      assertEquals(3, reader.read(keys));
+    }
+    assertEquals(keys[0], keys[2]);
+    assertNotEquals(keys[0], keys[1]);
+  }
+
+  @Test
+  public void streamsCompressedTrace(@TempDir Path directory) throws IOException {
+    Path trace = directory.resolve("trace.txt.gz");
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(trace));
+         Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < 10_000; i++) {
+        writer.write(i + "\n");
+      }
+    }
+    long[] keys = new long[1_000];
+    long sum = 0;
+    int total = 0;
+    try (TraceReader reader = new TraceReader(trace, 0)) {
+      int count;
+      while ((count = reader.read(keys)) > 0) {
+        assertEquals(1_000, count);
+        for (int i = 0; i < count; i++) {
+          assertEquals(total + i, keys[i]);
+          sum += keys[i];
+        }
+        total += count;
+      }
+    }
+    assertEquals(10_000, total);
+    assertEquals(49_995_000, sum);
+  }
+
+  @Test
+  public void rejectsLineWithoutColumn(@TempDir Path directory) throws IOException {
+    Path trace = directory.resolve("trace.txt");
+    Files.writeString(trace, "1 13\n2\n");
+    try (TraceReader reader = new TraceReader(trace, 1)) {
+      assertThrows(IllegalArgumentException.class, () -> reader.read(new long[4]));
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.sanik.simulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class WTinyLfuPolicyTest {
+
+  @Test
+  public void keepsHotKeyOnScan() {
+    WTinyLfuPolicy policy = new WTinyLfuPolicy(10, 10);
+    assertEquals(5, LruPolicyTest.hits(policy, LruPolicyTest.scanTrace()));
+    assertEquals("w-tinylfu(capacity=10,window=1)", policy.name());
+  }
+
+  @Test
+  public void windowKeepsRecentKeys() {
+    WTinyLfuPolicy policy = new WTinyLfuPolicy(4, 50);
+    assertEquals(3, LruPolicyTest.hits(policy, 1, 2, 2, 1, 3, 3, 4));
+  }
+
+  @Test
+  public void rejectsOneTimeKeysInFavourOfFrequentOnes() {
+    WTinyLfuPolicy policy = new WTinyLfuPolicy(2, 50);
+    //keys, which leave window, lose to more frequent 1 in main region
+    assertEquals(3, LruPolicyTest.hits(policy, 1, 1, 1, 2, 2, 3, 4, 5));
+    assertTrue(policy.record(1));
+  }
+}
@@ -0,0 +1,126 @@
+package com.sanik.server;
+
+import com.sanik.cache.ConcurrentMFUCache;
+import com.sanik.cache.MFUCache;
+import com.sanik.cache.cluster.Bytes;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Standalone cache server. Serves {@link com.sanik.cache.cluster.Protocol} with non blocking
+ * sockets: acceptor thread spreads connections over event loops, every loop serves its
+ * connections from one shared cache. {@link com.sanik.cache.cluster.ClusterClient} can be used as
+ * client of one or many servers
+ */
+@Slf4j
+public class CacheServer implements Closeable, AutoCloseable {
+  private final MFUCache<Bytes, byte[]> cache;
+  private final ServerSocketChannel serverChannel;
+  private final EventLoop[] loops;
+  private final Thread acceptor;
+  private volatile boolean closed;
+
+  /**
+   * Binds server and starts its threads
+   *
+   * @param address - address to listen, port 0 picks free port
+   * @param cache   - cache, which is owned by server after call, it should be concurrent
+   * @param threads - number of event loops
+   */
+  public CacheServer(InetSocketAddress address, MFUCache<Bytes, byte[]> cache, int threads)
+      throws IOException {
+    this.cache = cache;
+    this.serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(address);
+    CommandProcessor processor = new CommandProcessor(cache);
+    this.loops = new EventLoop[threads];
+    for (int i = 0; i < threads; i++) {
+      loops[i] = new EventLoop("CacheServer-" + i, processor);
+    }
+    this.acceptor = new Thread(this::accept, "CacheServer-acceptor");
+    acceptor.start();
+  }
+
+  public InetSocketAddress getAddress() throws IOException {
+    return (InetSocketAddress) serverChannel.getLocalAddress();
+  }
+
+  public MFUCache<Bytes, byte[]> getCache() {
+    return cache;
+  }
+
+  private void accept() {
+    int next = 0;
+    while (!closed) {
+      try {
+        SocketChannel channel = serverChannel.accept();
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        loops[next++ % loops.length].register(channel);
+      } catch (IOException e) {
+        if (!closed) {
+          log.warn("Connection can't be accepted", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops accepting, closes connections and cache
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      serverChannel.close();
+      acceptor.join();
+      for (EventLoop loop : loops) {
+        loop.close();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      cache.close();
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = 7000;
+    int capacity = 1_000_000;
+    int threads = Runtime.getRuntime().availableProcessors();
+    long maxLifeTime = 3_600_000;
+    for (int i = 0; i < args.length - 1; i += 2) {
+      switch (args[i]) {
+        case "--port":
+          port = Integer.parseInt(args[i + 1]);
+          break;
+        case "--capacity":
+          capacity = Integer.parseInt(args[i + 1]);
+          break;
+        case "--threads":
+          threads = Integer.parseInt(args[i + 1]);
+          break;
+        case "--max-life-time":
+          maxLifeTime = Long.parseLong(args[i + 1]);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+    MFUCache<Bytes, byte[]> cache = new ConcurrentMFUCache<>(capacity, 1, maxLifeTime);
+    cache.setReadBuffering(true);
+    CacheServer server = new CacheServer(new InetSocketAddress(port), cache, threads);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        server.close();
+      } catch (IOException e) {
+        log.warn("Server isn't closed cleanly", e);
+      }
+    }));
+    log.info("Cache server listens {} with {} threads", server.getAddress(), threads);
+  }
+}
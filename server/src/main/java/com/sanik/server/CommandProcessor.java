@@ -0,0 +1,138 @@
+package com.sanik.server;
+
+import com.sanik.cache.MFUCache;
+import com.sanik.cache.cluster.Bytes;
+import com.sanik.cache.cluster.Protocol;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves requests of {@link Protocol} from cache. Value is kept in one array together with its
+ * expiration time: long of milliseconds, 0 for value without ttl, then bytes of value. Expired
+ * value is never returned, it's removed, when it's read, or it's evicted by cache later
+ */
+@Slf4j
+class CommandProcessor {
+  private static final int EXPIRATION_SIZE = 8;
+
+  private final MFUCache<Bytes, byte[]> cache;
+
+  CommandProcessor(MFUCache<Bytes, byte[]> cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Method to serve request and to write its response to connection
+   *
+   * @param request    - body of request frame
+   * @param connection - connection of request
+   */
+  void process(ByteBuffer request, Connection connection) {
+    int start = connection.out().position();
+    try {
+      byte op = request.get();
+      switch (op) {
+        case Protocol.GET:
+          get(request, connection);
+          break;
+        case Protocol.PUT:
+        case Protocol.PUT_TTL:
+          put(op, request);
+          status(connection, Protocol.OK);
+          break;
+        case Protocol.DELETE:
+          byte[] removed = cache.remove(readKey(request));
+          status(connection, removed == null || isExpired(removed, now())
+              ? Protocol.NOT_FOUND : Protocol.OK);
+          break;
+        case Protocol.MGET:
+          mget(request, connection);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown operation " + op);
+      }
+    } catch (RuntimeException e) {
+      log.debug("Request can't be served", e);
+      connection.out().position(start);
+      byte[] message = String.valueOf(e).getBytes(StandardCharsets.UTF_8);
+      Protocol.putBytes(connection.reserve(9 + message.length)
+          .putInt(5 + message.length).put(Protocol.ERROR), message);
+    }
+  }
+
+  private void get(ByteBuffer request, Connection connection) {
+    byte[] stored = lookup(readKey(request), now());
+    if (stored == null) {
+      status(connection, Protocol.NOT_FOUND);
+    } else {
+      int length = stored.length - EXPIRATION_SIZE;
+      connection.reserve(9 + length).putInt(5 + length).put(Protocol.OK).putInt(length)
+          .put(stored, EXPIRATION_SIZE, length);
+    }
+  }
+
+  private void put(byte op, ByteBuffer request) {
+    Bytes key = readKey(request);
+    int length = request.getInt();
+    byte[] stored = new byte[EXPIRATION_SIZE + length];
+    request.get(stored, EXPIRATION_SIZE, length);
+    long ttl = op == Protocol.PUT_TTL ? request.getLong() : 0;
+    if (ttl < 0) {
+      throw new IllegalArgumentException("Negative ttl " + ttl);
+    }
+    ByteBuffer.wrap(stored).putLong(ttl == 0 ? 0 : now() + ttl);
+    cache.put(key, stored);
+  }
+
+  /**
+   * Writes values of keys one by one, length of frame is written, when all values are written
+   */
+  private void mget(ByteBuffer request, Connection connection) {
+    int count = request.getInt();
+    long now = now();
+    int start = connection.reserve(9).position();
+    connection.out().putInt(0).put(Protocol.OK).putInt(count);
+    for (int i = 0; i < count; i++) {
+      byte[] stored = lookup(readKey(request), now);
+      if (stored == null) {
+        connection.reserve(1).put((byte) 0);
+      } else {
+        int length = stored.length - EXPIRATION_SIZE;
+        connection.reserve(5 + length).put((byte) 1).putInt(length)
+            .put(stored, EXPIRATION_SIZE, length);
+      }
+    }
+    ByteBuffer out = connection.out();
+    out.putInt(start, out.position() - start - 4);
+  }
+
+  private byte[] lookup(Bytes key, long now) {
+    byte[] stored = cache.getIfPresent(key);
+    if (stored != null && isExpired(stored, now)) {
+      cache.remove(key, stored);
+      return null;
+    }
+    return stored;
+  }
+
+  private static boolean isExpired(byte[] stored, long now) {
+    long expiration = ByteBuffer.wrap(stored).getLong();
+    return expiration != 0 && expiration <= now;
+  }
+
+  /**
+   * Times of values are read by ticker of cache, so they follow the same clock as the cache
+   */
+  private long now() {
+    return cache.getTicker().currentTimeMillis();
+  }
+
+  private static Bytes readKey(ByteBuffer request) {
+    return new Bytes(Protocol.readBytes(request));
+  }
+
+  private static void status(Connection connection, byte status) {
+    connection.reserve(5).putInt(1).put(status);
+  }
+}
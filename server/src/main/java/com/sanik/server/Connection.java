@@ -0,0 +1,94 @@
+package com.sanik.server;
+
+import com.sanik.cache.cluster.Protocol;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Client connection of server. Requests are parsed straight from direct read buffer, all complete
+ * frames of one read are served at once and their responses go out with one write. While responses
+ * can't be written, connection isn't read, so slow client can't make server buffer without limit
+ */
+class Connection {
+  static final int INITIAL_BUFFER = 64 * 1024;
+
+  private final SocketChannel channel;
+  private final SelectionKey key;
+  private final CommandProcessor processor;
+  private ByteBuffer in = ByteBuffer.allocateDirect(INITIAL_BUFFER);
+  private ByteBuffer out = ByteBuffer.allocateDirect(INITIAL_BUFFER);
+
+  Connection(SocketChannel channel, SelectionKey key, CommandProcessor processor) {
+    this.channel = channel;
+    this.key = key;
+    this.processor = processor;
+  }
+
+  /**
+   * Reads available bytes and serves complete requests
+   *
+   * @return false, if client closed connection
+   */
+  boolean read() throws IOException {
+    if (channel.read(in) < 0) {
+      return false;
+    }
+    in.flip();
+    while (in.remaining() >= 4) {
+      int length = in.getInt(in.position());
+      Protocol.checkLength(length);
+      if (in.remaining() < 4 + length) {
+        if (in.capacity() < 4 + length) {
+          in = ByteBuffer.allocateDirect(4 + length).put(in).flip();
+        }
+        break;
+      }
+      processor.process(in.slice(in.position() + 4, length), this);
+      in.position(in.position() + 4 + length);
+    }
+    in.compact();
+    write();
+    return true;
+  }
+
+  /**
+   * Writes pending responses, connection waits for write readiness, until all of them are written
+   */
+  void write() throws IOException {
+    out.flip();
+    channel.write(out);
+    out.compact();
+    key.interestOps(out.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+  }
+
+  /**
+   * Method to get buffer of responses with room for number of bytes. Buffer can be replaced by
+   * bigger one, so it must not be kept between calls
+   */
+  ByteBuffer reserve(int bytes) {
+    if (out.remaining() < bytes) {
+      out = grow(out, out.position() + bytes);
+    }
+    return out;
+  }
+
+  ByteBuffer out() {
+    return out;
+  }
+
+  void close() {
+    key.cancel();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      //nothing to do with connection, which is closed anyway
+    }
+  }
+
+  private static ByteBuffer grow(ByteBuffer buffer, int minCapacity) {
+    ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, minCapacity));
+    return bigger.put(buffer.flip());
+  }
+}
@@ -0,0 +1,97 @@
+package com.sanik.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thread with own selector, which serves its share of connections
+ */
+@Slf4j
+class EventLoop implements Runnable, Closeable {
+  private final Selector selector;
+  private final CommandProcessor processor;
+  private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+  private final Thread thread;
+  private volatile boolean closed;
+
+  EventLoop(String name, CommandProcessor processor) throws IOException {
+    this.selector = Selector.open();
+    this.processor = processor;
+    this.thread = new Thread(this, name);
+    thread.start();
+  }
+
+  /**
+   * Passes accepted connection to thread of loop
+   */
+  void register(SocketChannel channel) {
+    accepted.add(channel);
+    selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    while (!closed) {
+      try {
+        selector.select();
+        registerAccepted();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          serve(key);
+        }
+      } catch (IOException e) {
+        log.error("Selector of {} failed", thread.getName(), e);
+        return;
+      }
+    }
+  }
+
+  private void registerAccepted() throws IOException {
+    SocketChannel channel;
+    while ((channel = accepted.poll()) != null) {
+      channel.configureBlocking(false);
+      SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+      key.attach(new Connection(channel, key, processor));
+    }
+  }
+
+  private void serve(SelectionKey key) {
+    Connection connection = (Connection) key.attachment();
+    try {
+      if (!key.isValid()) {
+        connection.close();
+      } else if (key.isWritable()) {
+        connection.write();
+      } else if (key.isReadable() && !connection.read()) {
+        connection.close();
+      }
+    } catch (IOException e) {
+      log.debug("Connection is broken", e);
+      connection.close();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    selector.wakeup();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (SelectionKey key : selector.keys()) {
+      ((Connection) key.attachment()).close();
+    }
+    selector.close();
+  }
+}
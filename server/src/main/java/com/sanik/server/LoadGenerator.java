@@ -0,0 +1,176 @@
+package com.sanik.server;
+
+import com.sanik.cache.cluster.Protocol;
+import com.sanik.cache.stats.LatencyHistogram;
+import com.sanik.cache.stats.LatencyRecorder;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator of cache server. Every connection has own thread, which sends batch of pipelined
+ * GET and PUT requests of random keys and waits for all responses of batch. Latency of request is
+ * latency of its batch, so deep pipelines show throughput rather than latency
+ */
+public class LoadGenerator {
+  private final InetSocketAddress server;
+  private final int pipeline;
+  private final int keys;
+  private final byte[] value;
+  private final int readPercent;
+  private final LatencyRecorder latency = new LatencyRecorder();
+  private final LongAdder gets = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private volatile boolean stopped;
+
+  public LoadGenerator(InetSocketAddress server, int pipeline, int keys, int valueSize,
+      int readPercent) {
+    this.server = server;
+    this.pipeline = pipeline;
+    this.keys = keys;
+    this.value = new byte[valueSize];
+    this.readPercent = readPercent;
+  }
+
+  /**
+   * Method to load server with connections for duration
+   *
+   * @return latencies of requests
+   */
+  public LatencyHistogram run(int connections, long duration, TimeUnit unit)
+      throws InterruptedException {
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < connections; i++) {
+      Thread thread = new Thread(this::load, "LoadGenerator-" + i);
+      threads.add(thread);
+      thread.start();
+    }
+    unit.sleep(duration);
+    stopped = true;
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return latency.snapshot();
+  }
+
+  public double hitRate() {
+    long requests = gets.sum();
+    return requests == 0 ? 1 : (double) hits.sum() / requests;
+  }
+
+  private void load() {
+    ByteBuffer responses = ByteBuffer.allocateDirect(Connection.INITIAL_BUFFER);
+    try (SocketChannel channel = SocketChannel.open(server)) {
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      boolean[] reads = new boolean[pipeline];
+      while (!stopped) {
+        ByteBuffer requests = ByteBuffer.allocate(pipeline * (32 + value.length));
+        for (int i = 0; i < pipeline; i++) {
+          byte[] key = ("key-" + random.nextInt(keys)).getBytes(StandardCharsets.UTF_8);
+          reads[i] = random.nextInt(100) < readPercent;
+          requests.put(reads[i] ? Protocol.get(key) : Protocol.put(key, value));
+        }
+        long start = System.nanoTime();
+        channel.write(requests.flip());
+        while (requests.hasRemaining()) {
+          channel.write(requests);
+        }
+        responses = readResponses(channel, responses, reads);
+        long nanos = System.nanoTime() - start;
+        for (int i = 0; i < pipeline; i++) {
+          latency.record(nanos);
+        }
+      }
+    } catch (IOException e) {
+      if (!stopped) {
+        throw new IllegalStateException("Connection to " + server + " failed", e);
+      }
+    }
+  }
+
+  private ByteBuffer readResponses(SocketChannel channel, ByteBuffer buffer, boolean[] reads)
+      throws IOException {
+    int received = 0;
+    while (received < reads.length) {
+      if (channel.read(buffer) < 0) {
+        throw new IOException("Connection is closed by server");
+      }
+      buffer.flip();
+      while (buffer.remaining() >= 4 && buffer.remaining() >= 4 + buffer.getInt(buffer.position())) {
+        int length = buffer.getInt();
+        byte status = buffer.get(buffer.position());
+        if (reads[received]) {
+          gets.increment();
+          if (status == Protocol.OK) {
+            hits.increment();
+          }
+        }
+        buffer.position(buffer.position() + length);
+        received++;
+      }
+      if (buffer.remaining() >= 4 && buffer.capacity() < 4 + buffer.getInt(buffer.position())) {
+        buffer = ByteBuffer.allocateDirect(4 + buffer.getInt(buffer.position())).put(buffer).flip();
+      }
+      buffer.compact();
+    }
+    return buffer;
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    String host = "localhost";
+    int port = 7000;
+    int connections = 16;
+    int pipeline = 16;
+    int seconds = 30;
+    int keys = 1_000_000;
+    int valueSize = 100;
+    int readPercent = 90;
+    for (int i = 0; i < args.length - 1; i += 2) {
+      switch (args[i]) {
+        case "--host":
+          host = args[i + 1];
+          break;
+        case "--port":
+          port = Integer.parseInt(args[i + 1]);
+          break;
+        case "--connections":
+          connections = Integer.parseInt(args[i + 1]);
+          break;
+        case "--pipeline":
+          pipeline = Integer.parseInt(args[i + 1]);
+          break;
+        case "--seconds":
+          seconds = Integer.parseInt(args[i + 1]);
+          break;
+        case "--keys":
+          keys = Integer.parseInt(args[i + 1]);
+          break;
+        case "--value-size":
+          valueSize = Integer.parseInt(args[i + 1]);
+          break;
+        case "--read-percent":
+          readPercent = Integer.parseInt(args[i + 1]);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+    LoadGenerator generator = new LoadGenerator(new InetSocketAddress(host, port), pipeline, keys,
+        valueSize, readPercent);
+    LatencyHistogram histogram = generator.run(connections, seconds, TimeUnit.SECONDS);
+    System.out.printf("requests/s: %.0f%n", (double) histogram.getCount() / seconds);
+    System.out.printf("hit rate: %.3f%n", generator.hitRate());
+    System.out.printf("latency us: mean %.1f, p50 %.1f, p99 %.1f, p99.9 %.1f%n",
+        histogram.getMeanNanos() / 1000, histogram.getPercentileNanos(50) / 1000.0,
+        histogram.getPercentileNanos(99) / 1000.0, histogram.getPercentileNanos(99.9) / 1000.0);
+  }
+}
@@ -0,0 +1,95 @@
+package com.sanik.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.ConcurrentMFUCache;
+import com.sanik.cache.MFUCache;
+import com.sanik.cache.cluster.Bytes;
+import com.sanik.cache.cluster.ClusterClient;
+import com.sanik.cache.cluster.Protocol;
+import com.sanik.cache.codec.StringCodec;
+import com.sanik.cache.ticker.FakeTicker;
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CacheServerTest {
+  private final FakeTicker ticker = new FakeTicker();
+  private CacheServer server;
+
+  @BeforeEach
+  public void startServer() throws Exception {
+    MFUCache<Bytes, byte[]> cache = new ConcurrentMFUCache<>(1_000, 1, 60_000, 4);
+    cache.setTicker(ticker);
+    server = new CacheServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), cache, 2);
+  }
+
+  @AfterEach
+  public void stopServer() throws Exception {
+    server.close();
+  }
+
+  @Test
+  public void servesPipelinedRequests() throws Exception {
+    try (ClusterClient<String, String> client = new ClusterClient<>(List.of(server.getAddress()),
+        new StringCodec(), new StringCodec())) {
+      List<CompletableFuture<Void>> puts = new ArrayList<>();
+      for (int i = 0; i < 500; i++) {
+        puts.add(client.putAsync("key-" + i, "value-" + i));
+      }
+      CompletableFuture.allOf(puts.toArray(new CompletableFuture[0])).join();
+      assertEquals(500, server.getCache().size());
+
+      assertEquals("value-7", client.get("key-7"));
+      assertNull(client.get("missing"));
+      assertTrue(client.remove("key-7"));
+      assertNull(client.get("key-7"));
+
+      Map<String, String> values = client.getAll(List.of("key-1", "key-7", "key-499"));
+      assertEquals(Map.of("key-1", "value-1", "key-499", "value-499"), values);
+
+      String big = "x".repeat(200_000);
+      client.put("big", big);
+      assertEquals(big, client.get("big"));
+    }
+  }
+
+  @Test
+  public void expiredValueIsNotReturned() throws Exception {
+    byte[] key = "session".getBytes(StandardCharsets.UTF_8);
+    byte[] value = "token".getBytes(StandardCharsets.UTF_8);
+    try (Socket socket = new Socket(server.getAddress().getAddress(), server.getAddress().getPort())) {
+      OutputStream out = socket.getOutputStream();
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      write(out, Protocol.put(key, value, 50));
+      write(out, Protocol.get(key));
+      assertEquals(Protocol.OK, Protocol.readFrame(in).get());
+      ByteBuffer response = Protocol.readFrame(in);
+      assertEquals(Protocol.OK, response.get());
+      assertArrayEquals(value, Protocol.readBytes(response));
+
+      ticker.advance(50, TimeUnit.MILLISECONDS);
+      write(out, Protocol.get(key));
+      assertEquals(Protocol.NOT_FOUND, Protocol.readFrame(in).get());
+
+      write(out, ByteBuffer.allocate(5).putInt(1).put((byte) 42).flip());
+      assertEquals(Protocol.ERROR, Protocol.readFrame(in).get());
+    }
+  }
+
+  private static void write(OutputStream out, ByteBuffer frame) throws Exception {
+    out.write(frame.array(), frame.position(), frame.remaining());
+  }
+}
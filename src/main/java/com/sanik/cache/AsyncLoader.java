@@ -0,0 +1,30 @@
+package com.sanik.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Starts asynchronous computation of value, which is missing in cache
+ */
+@FunctionalInterface
+public interface AsyncLoader<K, V> {
+
+  /**
+   * Method to start computation. Must not block
+   *
+   * @param key      - key of missing value
+   * @param executor - executor of cache, which can be used to run computation
+   * @return future of value. Failed future or future of null is removed from cache
+   */
+  CompletableFuture<V> load(K key, Executor executor);
+
+  /**
+   * Method to run blocking loader on executor of cache
+   *
+   * @param loader - blocking loader
+   * @return asynchronous loader
+   */
+  static <K, V> AsyncLoader<K, V> of(CacheLoader<K, V> loader) {
+    return (key, executor) -> CompletableFuture.supplyAsync(() -> loader.load(key), executor);
+  }
+}
@@ -0,0 +1,125 @@
+package com.sanik.cache;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * MFU cache, which keeps futures of values, so callers never wait for loads. Reads are lock
+ * free, concurrent requests of the same missing key get the same future, futures, which failed or
+ * completed with null, are removed from cache
+ */
+public class AsyncMFUCache<K, V> implements Closeable, AutoCloseable {
+  private final MFUCache<K, CompletableFuture<V>> cache;
+  private final Executor executor;
+
+  public AsyncMFUCache(int capacity, int step, long maxLifeTime) {
+    this(capacity, step, maxLifeTime, ConcurrentMFUCache.DEFAULT_CONCURRENCY_LEVEL,
+        ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param executor - executor, which is passed to loaders, e.g. executor of virtual threads
+   */
+  public AsyncMFUCache(int capacity, int step, long maxLifeTime, int concurrencyLevel,
+      Executor executor) {
+    this.cache = new ConcurrentMFUCache<>(capacity, step, maxLifeTime, concurrencyLevel);
+    this.cache.setReadBuffering(true);
+    this.executor = executor;
+  }
+
+  /**
+   * Method to get future of value, which is already in cache
+   *
+   * @param key - key of value
+   * @return future or null
+   */
+  public CompletableFuture<V> getIfPresent(K key) {
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * Method to get future of value or to start its load. Load is started once for all concurrent
+   * requests of the key. Future of load completes only after failed or null value is removed, so
+   * caller, which saw the failure, never gets it from cache again. Loader, which throws or returns
+   * null, gives failed future or future of null, which isn't cached
+   *
+   * @param key    - key of value
+   * @param loader - starts computation of missing value
+   * @return future of value, never null
+   */
+  public CompletableFuture<V> getAsync(K key, AsyncLoader<K, V> loader) {
+    List<CompletableFuture<V>> started = new ArrayList<>(1);
+    List<CompletableFuture<V>> rejected = new ArrayList<>(1);
+    CompletableFuture<V> future = cache.get(key, k -> {
+      CompletableFuture<V> loading;
+      try {
+        loading = loader.load(k, executor);
+      } catch (RuntimeException e) {
+        rejected.add(CompletableFuture.failedFuture(e));
+        return null;
+      }
+      if (loading == null) {
+        return null;
+      }
+      started.add(loading);
+      return new CompletableFuture<>();
+    });
+    if (future == null) {
+      return rejected.isEmpty() ? CompletableFuture.completedFuture(null) : rejected.get(0);
+    }
+    if (!started.isEmpty()) {
+      //registered after future is in cache, so it works even for load, which is already completed
+      started.get(0).whenComplete((value, error) -> {
+        if (error != null || value == null) {
+          cache.remove(key, future);
+        }
+        if (error != null) {
+          future.completeExceptionally(error);
+        } else {
+          future.complete(value);
+        }
+      });
+    }
+    return future;
+  }
+
+  public void put(K key, CompletableFuture<V> future) {
+    cache.put(key, future);
+    future.whenComplete((value, error) -> {
+      if (error != null || value == null) {
+        cache.remove(key, future);
+      }
+    });
+  }
+
+  /**
+   * Method to put loaded value. Null value removes key, like future, which completed with null
+   */
+  public void put(K key, V value) {
+    if (value == null) {
+      cache.remove(key);
+      return;
+    }
+    cache.put(key, CompletableFuture.completedFuture(value));
+  }
+
+  public CompletableFuture<V> remove(K key) {
+    return cache.remove(key);
+  }
+
+  /**
+   * Returns cache of futures, e.g. to set vetoes or weigher
+   */
+  public MFUCache<K, CompletableFuture<V>> synchronous() {
+    return cache;
+  }
+
+  @Override
+  public void close() {
+    cache.close();
+  }
+}
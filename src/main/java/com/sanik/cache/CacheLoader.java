@@ -0,0 +1,27 @@
+package com.sanik.cache;
+
+/**
+ * Computes value, which is missing in cache
+ */
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+
+  /**
+   * Method to compute value
+   *
+   * @param key - key of missing value
+   * @return value or null, if there is no value for key. Null is not cached
+   */
+  V load(K key);
+
+  /**
+   * Method to compute new value for key, which is already in cache
+   *
+   * @param key      - key of value
+   * @param oldValue - current value in cache
+   * @return new value or null to keep the old one
+   */
+  default V reload(K key, V oldValue) {
+    return load(key);
+  }
+}
@@ -0,0 +1,29 @@
+package com.sanik.cache;
+
+/**
+ * MFU cache, which keyspace is split into independently locked segments. Every segment has own
+ * map, own list with step promotion and own part of capacity, so operations with keys from
+ * different segments don't wait for each other. Order of values is kept inside segment only.
+ */
+public class ConcurrentMFUCache<K, V> extends MFUCache<K, V> {
+
+  static final int DEFAULT_CONCURRENCY_LEVEL = Runtime.getRuntime().availableProcessors() * 4;
+
+  public ConcurrentMFUCache(int capacity, int step, long maxLifeTime) {
+    this(capacity, step, maxLifeTime, DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  public ConcurrentMFUCache(int capacity, int step, long maxLifeTime, int concurrencyLevel) {
+    super(capacity, step, maxLifeTime, null, concurrencyLevel);
+  }
+
+  public ConcurrentMFUCache(int capacity, int step, long maxLifeTime, EvictionPolicy<K, V> policy,
+      int concurrencyLevel) {
+    super(capacity, step, maxLifeTime, policy, concurrencyLevel);
+  }
+
+  public ConcurrentMFUCache(int capacity, int step, long maxLifeTime, EvictionPolicy<K, V> policy,
+      int concurrencyLevel, Ordering ordering) {
+    super(capacity, step, maxLifeTime, policy, concurrencyLevel, ordering);
+  }
+}
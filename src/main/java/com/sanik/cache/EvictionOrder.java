@@ -0,0 +1,75 @@
+package com.sanik.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Order of nodes inside cache segment. First node is the most used one, last node is the next
+ * candidate for eviction
+ */
+public interface EvictionOrder<T> {
+
+  /**
+   * Method to promote node after it was used. Node, which is not in order yet, is added
+   *
+   * @param step - how far node should be promoted
+   * @param node - used node
+   */
+  void moveNodeWithStep(int step, Node<T> node);
+
+  /**
+   * Method to add node, which is not in order yet, after all nodes. Used to restore saved order, so
+   * nodes must be appended in order of {@link #forEachNode(Consumer)}
+   *
+   * @param node - node to add
+   * @param rank - rank of node, which was returned by {@link #rankOf(Node)} on save
+   */
+  void appendNode(Node<T> node, long rank);
+
+  /**
+   * Method to get position data of node, which isn't kept by order of nodes itself, e.g. frequency
+   *
+   * @return rank of node or 0, if order doesn't need it
+   */
+  default long rankOf(Node<T> node) {
+    return 0;
+  }
+
+  /**
+   * Method to get candidate for eviction
+   *
+   * @return last node or null, if order is empty
+   */
+  Node<T> getLastNode();
+
+  /**
+   * Method to delete element on last position
+   */
+  void removeLast();
+
+  /**
+   * Method to delete node from order in constant time
+   *
+   * @param node - node, which need to delete
+   * @return true, if node was in order and false, if not
+   */
+  boolean unlink(Node<T> node);
+
+  /**
+   * Method to check, if node is in order
+   *
+   * @param node - node to check
+   * @return true, if node is in order and false, if not
+   */
+  boolean isLinked(Node<T> node);
+
+  /**
+   * Method to pass every node to consumer, starting from the first one
+   *
+   * @param consumer - receiver of nodes
+   */
+  void forEachNode(Consumer<Node<T>> consumer);
+
+  int size();
+
+  void clear();
+}
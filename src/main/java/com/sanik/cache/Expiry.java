@@ -0,0 +1,38 @@
+package com.sanik.cache;
+
+/**
+ * Calculates life time of every entry. Durations are in milliseconds, {@link Long#MAX_VALUE} means
+ * that entry never expires, zero or negative duration expires entry right away. Methods are called
+ * under lock of the segment, so they must be quick
+ */
+@FunctionalInterface
+public interface Expiry<K, V> {
+
+  /**
+   * Method to get life time of new entry
+   *
+   * @param key         - key of entry
+   * @param value       - value of entry
+   * @param currentTime - time of put in milliseconds
+   * @return duration, after which entry expires
+   */
+  long expireAfterCreate(K key, V value, long currentTime);
+
+  /**
+   * Method to get life time of entry, which value was replaced. By default entry lives like new one
+   *
+   * @param currentDuration - duration, which was left till expiration before update
+   */
+  default long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+    return expireAfterCreate(key, value, currentTime);
+  }
+
+  /**
+   * Method to get life time of entry, which was read. By default read doesn't change it
+   *
+   * @param currentDuration - duration, which is left till expiration
+   */
+  default long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+    return currentDuration;
+  }
+}
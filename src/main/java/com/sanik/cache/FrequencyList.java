@@ -0,0 +1,258 @@
+package com.sanik.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Order of nodes, which are grouped into buckets by frequency of usage. Buckets are linked from
+ * the least to the most frequent one, nodes inside bucket are linked from the most to the least
+ * recently promoted one. Promotion, eviction and unlinking cost constant time, promotion with step
+ * visits at most step buckets, whatever size of list is.
+ */
+public class FrequencyList<T> implements EvictionOrder<T> {
+  //Bucket with the lowest frequency. Eviction happens from its end
+  private Bucket<T> lowest;
+
+  //Bucket with the highest frequency
+  private Bucket<T> highest;
+
+  //Number of nodes in all buckets
+  private int size;
+
+  static class Bucket<T> {
+    private final long frequency;
+    private Bucket<T> lower;
+    private Bucket<T> higher;
+    private FrequencyNode<T> head;
+    private FrequencyNode<T> tail;
+
+    Bucket(long frequency) {
+      this.frequency = frequency;
+    }
+
+    long getFrequency() {
+      return frequency;
+    }
+  }
+
+  /**
+   * Increases frequency of node by step. Node, which is not in list yet, gets frequency 1
+   *
+   * @param step - how much frequency should be increased
+   * @param node - used node, must be {@link FrequencyNode}
+   */
+  @Override
+  public void moveNodeWithStep(int step, Node<T> node) {
+    FrequencyNode<T> frequencyNode = (FrequencyNode<T>) node;
+    Bucket<T> current = frequencyNode.getBucket();
+    if (current == null) {
+      Bucket<T> target = lowest != null && lowest.frequency == 1 ? lowest : insertAfter(null, 1);
+      addToHead(target, frequencyNode);
+      size++;
+      return;
+    }
+    long frequency = current.frequency + Math.max(step, 0);
+    Bucket<T> target = current;
+    while (target.higher != null && target.higher.frequency <= frequency) {
+      target = target.higher;
+    }
+    if (target.frequency != frequency) {
+      target = insertAfter(target, frequency);
+    } else if (target == current && current.head == frequencyNode) {
+      return;
+    }
+    removeFromBucket(frequencyNode);
+    addToHead(target, frequencyNode);
+  }
+
+  /**
+   * Adds node with given frequency after all nodes of that frequency
+   *
+   * @param node - node, which is not in list yet
+   * @param rank - frequency of node, at least 1
+   */
+  @Override
+  public void appendNode(Node<T> node, long rank) {
+    long frequency = Math.max(rank, 1);
+    Bucket<T> target = null;
+    //nodes are restored from the most frequent, so bucket is usually the lowest one
+    for (Bucket<T> bucket = lowest; bucket != null && bucket.frequency <= frequency; bucket = bucket.higher) {
+      target = bucket;
+    }
+    if (target == null || target.frequency != frequency) {
+      target = insertAfter(target, frequency);
+    }
+    FrequencyNode<T> frequencyNode = (FrequencyNode<T>) node;
+    frequencyNode.setBucket(target);
+    frequencyNode.setNext(null);
+    frequencyNode.setPrevious(target.tail);
+    if (target.tail != null) {
+      target.tail.setNext(frequencyNode);
+    } else {
+      target.head = frequencyNode;
+    }
+    target.tail = frequencyNode;
+    size++;
+  }
+
+  @Override
+  public long rankOf(Node<T> node) {
+    return frequencyOf(node);
+  }
+
+  @Override
+  public Node<T> getLastNode() {
+    return lowest != null ? lowest.tail : null;
+  }
+
+  @Override
+  public void removeLast() {
+    if (!unlink(getLastNode())) {
+      throw new IndexOutOfBoundsException("There is no elements in list. Please, add some");
+    }
+  }
+
+  @Override
+  public boolean unlink(Node<T> node) {
+    if (!isLinked(node)) {
+      return false;
+    }
+    removeFromBucket((FrequencyNode<T>) node);
+    size--;
+    return true;
+  }
+
+  @Override
+  public boolean isLinked(Node<T> node) {
+    return node != null && ((FrequencyNode<T>) node).getBucket() != null;
+  }
+
+  /**
+   * Method to get frequency of node
+   *
+   * @param node - node from this list
+   * @return frequency or 0, if node isn't in list
+   */
+  public long frequencyOf(Node<T> node) {
+    Bucket<T> bucket = ((FrequencyNode<T>) node).getBucket();
+    return bucket != null ? bucket.frequency : 0;
+  }
+
+  @Override
+  public void forEachNode(Consumer<Node<T>> consumer) {
+    for (Bucket<T> bucket = highest; bucket != null; bucket = bucket.lower) {
+      Node<T> currentNode = bucket.head;
+      while (currentNode != null) {
+        Node<T> nextNode = currentNode.getNext();
+        consumer.accept(currentNode);
+        currentNode = nextNode;
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    forEachNode(node -> {
+      FrequencyNode<T> frequencyNode = (FrequencyNode<T>) node;
+      frequencyNode.setBucket(null);
+      frequencyNode.setPrevious(null);
+      frequencyNode.setNext(null);
+      frequencyNode.setValue(null);
+    });
+    lowest = null;
+    highest = null;
+    size = 0;
+  }
+
+  /**
+   * Method to create bucket right after (with higher frequency than) input bucket
+   *
+   * @param bucket    - bucket, after which new one is linked, or null to link new lowest bucket
+   * @param frequency - frequency of new bucket
+   * @return created bucket
+   */
+  private Bucket<T> insertAfter(Bucket<T> bucket, long frequency) {
+    Bucket<T> created = new Bucket<>(frequency);
+    Bucket<T> higher = bucket != null ? bucket.higher : lowest;
+    created.lower = bucket;
+    created.higher = higher;
+    if (bucket != null) {
+      bucket.higher = created;
+    } else {
+      lowest = created;
+    }
+    if (higher != null) {
+      higher.lower = created;
+    } else {
+      highest = created;
+    }
+    return created;
+  }
+
+  private void addToHead(Bucket<T> bucket, FrequencyNode<T> node) {
+    node.setBucket(bucket);
+    node.setPrevious(null);
+    node.setNext(bucket.head);
+    if (bucket.head != null) {
+      bucket.head.setPrevious(node);
+    } else {
+      bucket.tail = node;
+    }
+    bucket.head = node;
+  }
+
+  /**
+   * Method to take node out of its bucket. Empty bucket is dropped
+   */
+  private void removeFromBucket(FrequencyNode<T> node) {
+    Bucket<T> bucket = node.getBucket();
+    Node<T> previousNode = node.getPrevious();
+    Node<T> nextNode = node.getNext();
+    if (previousNode == null) {
+      bucket.head = (FrequencyNode<T>) nextNode;
+    } else {
+      previousNode.setNext(nextNode);
+    }
+    if (nextNode == null) {
+      bucket.tail = (FrequencyNode<T>) previousNode;
+    } else {
+      nextNode.setPrevious(previousNode);
+    }
+    node.setPrevious(null);
+    node.setNext(null);
+    node.setBucket(null);
+    if (bucket.head == null) {
+      removeBucket(bucket);
+    }
+  }
+
+  private void removeBucket(Bucket<T> bucket) {
+    if (bucket.lower != null) {
+      bucket.lower.higher = bucket.higher;
+    } else {
+      lowest = bucket.higher;
+    }
+    if (bucket.higher != null) {
+      bucket.higher.lower = bucket.lower;
+    } else {
+      highest = bucket.lower;
+    }
+    bucket.lower = null;
+    bucket.higher = null;
+  }
+
+  public String toString() {
+    StringBuilder builder = new StringBuilder("{");
+    forEachNode(node -> {
+      if (builder.length() > 1) {
+        builder.append(", ");
+      }
+      builder.append(node.getValue());
+    });
+    return builder.append("}").toString();
+  }
+}
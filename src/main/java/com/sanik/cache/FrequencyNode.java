@@ -0,0 +1,11 @@
+package com.sanik.cache;
+
+/**
+ * Node, which can be kept in {@link FrequencyList}. It knows frequency bucket it belongs to
+ */
+interface FrequencyNode<T> extends Node<T> {
+
+  FrequencyList.Bucket<T> getBucket();
+
+  void setBucket(FrequencyList.Bucket<T> bucket);
+}
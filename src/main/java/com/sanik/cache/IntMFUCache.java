@@ -0,0 +1,67 @@
+package com.sanik.cache;
+
+import com.sanik.cache.veto.AddingVeto;
+import com.sanik.cache.veto.RemovingVeto;
+import com.sanik.cache.veto.UpdatingVeto;
+import java.util.List;
+
+/**
+ * MFU cache with primitive int keys. Keys are widened to long and kept in {@link LongMFUCache},
+ * so it has the same layout and the same allocation free reads
+ */
+public class IntMFUCache<V> {
+  private final LongMFUCache<V> cache;
+
+  public IntMFUCache(int capacity, int step, long maxLifeTime) {
+    cache = new LongMFUCache<>(capacity, step, maxLifeTime);
+  }
+
+  public V get(int key) {
+    return cache.get(key);
+  }
+
+  public void put(int key, V value) {
+    cache.put(key, value);
+  }
+
+  public V remove(int key) {
+    return cache.remove(key);
+  }
+
+  public boolean containsKey(int key) {
+    return cache.containsKey(key);
+  }
+
+  public List<V> values() {
+    return cache.values();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public void cleanUp() {
+    cache.cleanUp();
+  }
+
+  public void clear() {
+    cache.clear();
+  }
+
+  public void setAddingVeto(AddingVeto<Integer, V> addingVeto) {
+    cache.setAddingVeto((key, value) -> addingVeto.operationAllowed(key.intValue(), value));
+  }
+
+  public void setRemovingVeto(RemovingVeto<Integer, V> removingVeto) {
+    cache.setRemovingVeto((key, value) -> removingVeto.operationAllowed(key.intValue(), value));
+  }
+
+  public void setUpdatingVeto(UpdatingVeto<Integer, V> updatingVeto) {
+    cache.setUpdatingVeto((key, value) -> updatingVeto.operationAllowed(key.intValue(), value));
+  }
+
+  @Override
+  public String toString() {
+    return "IntMFUCache" + cache.values();
+  }
+}
@@ -1,8 +1,9 @@
 package com.sanik.cache;
 
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-public class LinkedList<T> {
+public class LinkedList<T> implements EvictionOrder<T> {
   private Supplier<Node<T>> supplier = LinkedNode::new;
   //pointer to first object in list
   private Node<T> first = null;
@@ -57,6 +58,7 @@ public class LinkedList<T> {
    *
    * @return actual size of array
    */
+  @Override
   public int size() {
     return size;
   }
@@ -93,6 +95,7 @@ public class LinkedList<T> {
   /**
    * Method to delete element on last position
    */
+  @Override
   public void removeLast() {
     removeFromEnd();
   }
@@ -104,41 +107,53 @@ public class LinkedList<T> {
    * @return true, if secceddfully deleted and false, if not
    */
   public boolean remove(int index) {
-    try {
-      if (index >= 0 && index < size) {
-        Node<T> currentNode = first;
-        for (int i = 0; i < index; i++) {
-          if (currentNode != null) {
-            currentNode = currentNode.getNext();
-          }
-        }
-        assert currentNode != null;
-        Node<T> previousNode = currentNode.getPrevious();
-        if (previousNode == null) {
-          Node<T> nextNode = currentNode.getNext();
-          if (nextNode != null) {
-            nextNode.setPrevious(null);
-            first = nextNode;
-          }
-          size--;
-          return true;
-        }
-        Node<T> nextNode = currentNode.getNext();
-        if (nextNode == null) {
-          previousNode.setNext(null);
-          last = previousNode;
-          size--;
-          return true;
-        }
-        previousNode.setNext(nextNode);
-        nextNode.setPrevious(previousNode);
-        size--;
-        return true;
-      }
-      throw new IndexOutOfBoundsException("There is no element with such index: " + index);
-    } catch (Exception ex) {
+    if (index < 0 || index >= size) {
       return false;
     }
+    return unlink(get(index));
+  }
+
+  @Override
+  public boolean unlink(Node<T> node) {
+    if (!isLinked(node)) {
+      return false;
+    }
+    Node<T> previousNode = node.getPrevious();
+    Node<T> nextNode = node.getNext();
+    if (previousNode == null) {
+      first = nextNode;
+    } else {
+      previousNode.setNext(nextNode);
+    }
+    if (nextNode == null) {
+      last = previousNode;
+    } else {
+      nextNode.setPrevious(previousNode);
+    }
+    node.setPrevious(null);
+    node.setNext(null);
+    size--;
+    return true;
+  }
+
+  @Override
+  public boolean isLinked(Node<T> node) {
+    return node != null && (node.getPrevious() != null || node.getNext() != null || node == first);
+  }
+
+  @Override
+  public Node<T> getLastNode() {
+    return last;
+  }
+
+  @Override
+  public void forEachNode(Consumer<Node<T>> consumer) {
+    Node<T> currentNode = first;
+    while (currentNode != null) {
+      Node<T> nextNode = currentNode.getNext();
+      consumer.accept(currentNode);
+      currentNode = nextNode;
+    }
   }
 
   /**
@@ -151,13 +166,20 @@ public class LinkedList<T> {
     return remove(indexOf(t));
   }
 
+  @Override
   public void moveNodeWithStep(int step, Node<T> node) {
-    if(node.getPrevious() == null && node.getNext() == null) {
+    //node is not linked yet. The only node of list has no neighbours too, but it's already there
+    if(node.getPrevious() == null && node.getNext() == null && node != first) {
       addToEnd(node);
     }
     moveNode(step, node);
   }
 
+  @Override
+  public void appendNode(Node<T> node, long rank) {
+    addToEnd(node);
+  }
+
   private void moveNode(int step, Node<T> node) {
     step ++;
     Node<T> currentNode = node;
@@ -370,6 +392,7 @@ public class LinkedList<T> {
     return currentNode;
   }
 
+  @Override
   public void clear() {
     Node<T> currentNode = first;
     Node<T> nextNode;
@@ -382,6 +405,7 @@ public class LinkedList<T> {
     }
     first = null;
     last = null;
+    size = 0;
   }
 }
 
@@ -426,7 +450,6 @@ class LinkedNode<T> implements Node<T>{
   @Override
   public void setValue(T value) {
     this.value = value;
-    setAddedTime(System.currentTimeMillis());
   }
 
   @Override
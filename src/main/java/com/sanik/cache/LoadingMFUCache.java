@@ -0,0 +1,135 @@
+package com.sanik.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MFU cache, which loads missing values by its loader. Concurrent misses of the same key wait for
+ * one load, loads of different keys run in parallel and don't hold any lock of cache
+ */
+@Slf4j
+public class LoadingMFUCache<K, V> extends MFUCache<K, V> {
+  private final CacheLoader<K, V> loader;
+  //Zero means, that values are never refreshed
+  private volatile long refreshAfterWrite;
+  private volatile Executor refreshExecutor = ForkJoinPool.commonPool();
+  //Keys, which are reloaded now
+  private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+
+  public LoadingMFUCache(int capacity, int step, long maxLifeTime, CacheLoader<K, V> loader) {
+    this(capacity, step, maxLifeTime, 1, loader);
+  }
+
+  /**
+   * Creates loading cache, which keyspace is split into independently locked segments
+   */
+  public LoadingMFUCache(int capacity, int step, long maxLifeTime, int concurrencyLevel,
+      CacheLoader<K, V> loader) {
+    super(capacity, step, maxLifeTime, null, concurrencyLevel);
+    this.loader = loader;
+  }
+
+  /**
+   * Method to get value, which is loaded, if it's missing
+   *
+   * @param key - key of value
+   * @return value or null, if loader has no value for key
+   */
+  @Override
+  public V get(K key) {
+    V value = getIfPresent(key);
+    if (value != null) {
+      refreshIfNeeded(key, value);
+      return value;
+    }
+    return load(key, loader::load);
+  }
+
+  /**
+   * Method to get values of several keys. Missing values are loaded one by one
+   *
+   * @param keys - keys of values
+   * @return values in order of input keys, keys without value are skipped
+   */
+  @Override
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    Map<K, V> present = super.getAll(keys);
+    Map<K, V> result = new LinkedHashMap<>();
+    for (K key : keys) {
+      if (result.containsKey(key)) {
+        continue;
+      }
+      V value = present.get(key);
+      if (value != null) {
+        refreshIfNeeded(key, value);
+      } else {
+        value = load(key, loader::load);
+      }
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Enables refresh of old values. Read of value, which was put earlier than refresh interval ago,
+   * returns current value immediately and starts one asynchronous reload, which replaces value
+   * in place. If reload fails, current value stays in cache
+   *
+   * @param refreshAfterWrite - refresh interval, zero to disable refresh
+   * @param unit              - unit of interval
+   */
+  public void setRefreshAfterWrite(long refreshAfterWrite, TimeUnit unit) {
+    this.refreshAfterWrite = unit.toMillis(refreshAfterWrite);
+  }
+
+  /**
+   * Sets executor, which runs reloads. Common pool is used by default
+   */
+  public void setRefreshExecutor(Executor refreshExecutor) {
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  protected CacheLoader<K, V> getLoader() {
+    return loader;
+  }
+
+  private void refreshIfNeeded(K key, V value) {
+    long interval = refreshAfterWrite;
+    if (interval <= 0) {
+      return;
+    }
+    long writeTime = writeTimeOf(key);
+    if (writeTime < 0 || currentTimeMillis() - writeTime < interval || !refreshing.add(key)) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        long start = System.nanoTime();
+        V newValue = null;
+        try {
+          newValue = loader.reload(key, value);
+          if (newValue != null) {
+            replace(key, value, newValue);
+          }
+        } catch (RuntimeException e) {
+          log.warn("Value of key {} cannot be refreshed", key, e);
+        } finally {
+          recordLoad(newValue != null, System.nanoTime() - start);
+          refreshing.remove(key);
+        }
+      });
+    } catch (RuntimeException e) {
+      refreshing.remove(key);
+      log.warn("Refresh of key {} cannot be started", key, e);
+    }
+  }
+}
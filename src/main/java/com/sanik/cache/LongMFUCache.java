@@ -0,0 +1,348 @@
+package com.sanik.cache;
+
+import com.sanik.cache.ticker.Ticker;
+import com.sanik.cache.veto.AddingVeto;
+import com.sanik.cache.veto.RemovingVeto;
+import com.sanik.cache.veto.UpdatingVeto;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MFU cache with primitive long keys. Entries are kept in parallel arrays, which are allocated
+ * once for whole capacity, and are found by open addressing table of entry indexes, so neither
+ * keys are boxed nor nodes are allocated. Entry costs key (8 bytes), value reference (4 bytes
+ * with compressed oops), links of list (8 bytes), time of adding (8 bytes) and 4/3 slots of table
+ * (5.3 bytes), so about 33.3 bytes without value itself.
+ *
+ * <p>Eviction and vetoes work like in {@link MFUCache}: used entry moves step positions closer
+ * to start of the list and the last entry is evicted. Expired entries are removed, when they are
+ * read or by {@link #cleanUp()}
+ */
+public class LongMFUCache<V> {
+  private static final int NONE = -1;
+  //Slot of table, which keeps no entry
+  private static final int EMPTY = 0;
+
+  private final int capacity;
+  private final int step;
+  private final long maxLifeTime;
+  private AddingVeto<Long, V> addingVeto = (key, value) -> true;
+  private RemovingVeto<Long, V> removingVeto = (key, value) -> true;
+  private UpdatingVeto<Long, V> updatingVeto = (key, value) -> true;
+  private Ticker ticker = Ticker.system();
+
+  //Entries. One more than capacity, because new entry is added before the last one is evicted
+  private final long[] keys;
+  private final Object[] values;
+  private final long[] addedTimes;
+  //Links of list, which keeps order of usage. Next also links free entries
+  private final int[] previous;
+  private final int[] next;
+  private int first = NONE;
+  private int last = NONE;
+  private int freeEntry;
+  private int size;
+
+  //Open addressing table with linear probing. Slot keeps index of entry plus one. Table isn't
+  //rounded to power of two, so it takes exactly 4/3 slots per entry
+  private final int[] table;
+
+  public LongMFUCache(int capacity, int step, long maxLifeTime) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.step = step;
+    this.maxLifeTime = maxLifeTime;
+    int entries = capacity + 1;
+    keys = new long[entries];
+    values = new Object[entries];
+    addedTimes = new long[entries];
+    previous = new int[entries];
+    next = new int[entries];
+    for (int i = 0; i < entries; i++) {
+      next[i] = i + 1 < entries ? i + 1 : NONE;
+    }
+    freeEntry = 0;
+    //load factor is not more than 0.75
+    table = new int[entries * 4 / 3 + 1];
+  }
+
+  /**
+   * Method to get value without any allocation
+   *
+   * @param key - key of value
+   * @return value or null, if there is no value or it's expired
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized V get(long key) {
+    int entry = find(key);
+    if (entry == NONE) {
+      return null;
+    }
+    if (isExpired(entry, ticker.currentTimeMillis())) {
+      delete(entry);
+      return null;
+    }
+    moveToDesiredPosition(entry);
+    return (V) values[entry];
+  }
+
+  public synchronized void put(long key, V value) {
+    int entry = find(key);
+    if (entry == NONE) {
+      if (!addingVeto.operationAllowed(key, value)) {
+        return;
+      }
+      entry = allocate(key);
+      append(entry);
+    } else if (!updatingVeto.operationAllowed(key, value)) {
+      return;
+    }
+    values[entry] = value;
+    addedTimes[entry] = ticker.currentTimeMillis();
+    moveToDesiredPosition(entry);
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized V remove(long key) {
+    int entry = find(key);
+    if (entry == NONE) {
+      return null;
+    }
+    V value = (V) values[entry];
+    if (!removingVeto.operationAllowed(key, value)) {
+      return null;
+    }
+    delete(entry);
+    return value;
+  }
+
+  public synchronized boolean containsKey(long key) {
+    return find(key) != NONE;
+  }
+
+  /**
+   * Returns values in order of their usage
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized List<V> values() {
+    List<V> result = new ArrayList<>(size);
+    for (int entry = first; entry != NONE; entry = next[entry]) {
+      result.add((V) values[entry]);
+    }
+    return result;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Removes all expired entries
+   */
+  public synchronized void cleanUp() {
+    long now = ticker.currentTimeMillis();
+    int entry = first;
+    while (entry != NONE) {
+      int nextEntry = next[entry];
+      if (isExpired(entry, now)) {
+        delete(entry);
+      }
+      entry = nextEntry;
+    }
+  }
+
+  /**
+   * Removes all entries, which removing veto allows to remove
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized void clear() {
+    int entry = first;
+    while (entry != NONE) {
+      int nextEntry = next[entry];
+      if (removingVeto.operationAllowed(keys[entry], (V) values[entry])) {
+        delete(entry);
+      }
+      entry = nextEntry;
+    }
+  }
+
+  public void setAddingVeto(AddingVeto<Long, V> addingVeto) {
+    this.addingVeto = addingVeto;
+  }
+
+  public void setRemovingVeto(RemovingVeto<Long, V> removingVeto) {
+    this.removingVeto = removingVeto;
+  }
+
+  public void setUpdatingVeto(UpdatingVeto<Long, V> updatingVeto) {
+    this.updatingVeto = updatingVeto;
+  }
+
+  /**
+   * Sets source of time for adding times and expiration. Entries, which are in cache already, keep
+   * their adding times
+   *
+   * @param ticker - source of time
+   */
+  public synchronized void setTicker(Ticker ticker) {
+    this.ticker = ticker;
+  }
+
+  //the same boundary as MFUCache has, entry expires exactly at adding time plus maxLifeTime
+  private boolean isExpired(int entry, long now) {
+    return now - addedTimes[entry] >= maxLifeTime;
+  }
+
+  private void moveToDesiredPosition(int entry) {
+    moveWithStep(entry);
+    if (size > capacity) {
+      delete(last);
+    }
+  }
+
+  /**
+   * Moves entry step positions closer to start of the list, like {@link LinkedList} does
+   */
+  private void moveWithStep(int entry) {
+    if (entry == first) {
+      return;
+    }
+    int previousEntry = previous[entry];
+    int nextEntry = next[entry];
+    next[previousEntry] = nextEntry;
+    if (nextEntry != NONE) {
+      previous[nextEntry] = previousEntry;
+    } else {
+      last = previousEntry;
+    }
+    int current = previousEntry;
+    for (int i = 0; i < step && current != NONE; i++) {
+      current = previous[current];
+    }
+    if (current == NONE) {
+      previous[entry] = NONE;
+      next[entry] = first;
+      previous[first] = entry;
+      first = entry;
+    } else {
+      int after = next[current];
+      previous[entry] = current;
+      next[entry] = after;
+      next[current] = entry;
+      if (after != NONE) {
+        previous[after] = entry;
+      } else {
+        last = entry;
+      }
+    }
+  }
+
+  private void append(int entry) {
+    previous[entry] = last;
+    next[entry] = NONE;
+    if (last == NONE) {
+      first = entry;
+    } else {
+      next[last] = entry;
+    }
+    last = entry;
+    size++;
+  }
+
+  private int allocate(long key) {
+    int entry = freeEntry;
+    freeEntry = next[entry];
+    keys[entry] = key;
+    int slot = slotOf(key);
+    while (table[slot] != EMPTY) {
+      slot = nextSlot(slot);
+    }
+    table[slot] = entry + 1;
+    return entry;
+  }
+
+  /**
+   * Deletes entry from list and table and returns it to free entries
+   */
+  private void delete(int entry) {
+    int previousEntry = previous[entry];
+    int nextEntry = next[entry];
+    if (previousEntry == NONE) {
+      first = nextEntry;
+    } else {
+      next[previousEntry] = nextEntry;
+    }
+    if (nextEntry == NONE) {
+      last = previousEntry;
+    } else {
+      previous[nextEntry] = previousEntry;
+    }
+    size--;
+    deleteSlot(entry);
+    values[entry] = null;
+    next[entry] = freeEntry;
+    freeEntry = entry;
+  }
+
+  /**
+   * Deletes slot of entry with backward shift, so no tombstones are needed
+   */
+  private void deleteSlot(int entry) {
+    int slot = slotOf(keys[entry]);
+    while (table[slot] != entry + 1) {
+      slot = nextSlot(slot);
+    }
+    int hole = slot;
+    slot = nextSlot(slot);
+    while (table[slot] != EMPTY) {
+      int home = slotOf(keys[table[slot] - 1]);
+      //element can fill the hole, if the hole lies between its home slot and its slot
+      if (distance(home, slot) >= distance(hole, slot)) {
+        table[hole] = table[slot];
+        hole = slot;
+      }
+      slot = nextSlot(slot);
+    }
+    table[hole] = EMPTY;
+  }
+
+  private int find(long key) {
+    int slot = slotOf(key);
+    int value;
+    while ((value = table[slot]) != EMPTY) {
+      if (keys[value - 1] == key) {
+        return value - 1;
+      }
+      slot = nextSlot(slot);
+    }
+    return NONE;
+  }
+
+  /**
+   * Maps high bits of hash to table by multiplication, so table size can be any
+   */
+  private int slotOf(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (((h >>> 32) * table.length) >>> 32);
+  }
+
+  private int nextSlot(int slot) {
+    return slot + 1 == table.length ? 0 : slot + 1;
+  }
+
+  /**
+   * Number of probes from one slot to another with wrapping around the end of table
+   */
+  private int distance(int from, int to) {
+    int distance = to - from;
+    return distance < 0 ? distance + table.length : distance;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "LongMFUCache" + Arrays.toString(values().toArray());
+  }
+}
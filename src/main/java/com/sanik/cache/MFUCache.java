@@ -1,20 +1,64 @@
 package com.sanik.cache;
 
+import com.sanik.cache.admission.Admittor;
+import com.sanik.cache.codec.Codec;
+import com.sanik.cache.offheap.OffHeapStore;
+import com.sanik.cache.persistence.SnapshotEntry;
+import com.sanik.cache.persistence.SnapshotReader;
+import com.sanik.cache.persistence.SnapshotWriter;
+import com.sanik.cache.persistence.WriteBehindLog;
+import com.sanik.cache.stats.CacheStats;
+import com.sanik.cache.stats.CacheStatsBean;
+import com.sanik.cache.stats.ConcurrentStatsCounter;
+import com.sanik.cache.stats.StatsCounter;
+import com.sanik.cache.ticker.Ticker;
 import com.sanik.cache.veto.AddingVeto;
 import com.sanik.cache.veto.RemovingVeto;
 import com.sanik.cache.veto.UpdatingVeto;
+import com.sanik.maintenance.MaintenanceScheduler;
 import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class MFUCache <K, V> implements Closeable, AutoCloseable {
-  private final SyncHolder<K, V> syncHolder = new SyncHolder<>();
+  static final long DEFAULT_EXPIRATION_TICK = TimeUnit.SECONDS.toMillis(1);
+  //Custom eviction policy can't be indexed by time, so all entries are checked with this period
+  static final long POLICY_SCAN_PERIOD = TimeUnit.SECONDS.toMillis(30);
+  public static final int DEFAULT_WINDOW_PERCENT = 1;
+
+  private final SyncHolder<K, V>[] segments;
+  private final int segmentMask;
   private final EvictionPolicy<K, V> policy;
   private AddingVeto<K, V> addingVeto = (key, value) -> true;
   private RemovingVeto<K, V> removingVeto = (key, value) -> true;
@@ -25,132 +69,1129 @@ public class MFUCache <K, V> implements Closeable, AutoCloseable {
   private final int step;
   private long maxLifeTime;
   private volatile boolean stop;
+  private volatile boolean readBuffering;
+  private volatile long expirationTick = DEFAULT_EXPIRATION_TICK;
+  private volatile Ticker ticker = Ticker.system();
+  private volatile long lastPolicyScan = ticker.currentTimeMillis();
+  private volatile MaintenanceScheduler scheduler = MaintenanceScheduler.shared();
+  private volatile Weigher<K, V> weigher = (key, value) -> 1;
+  private volatile OffHeapStore<V> offHeapStore;
+  //Loads, which are running now, by key
+  private final Map<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+  private Future<?> maintenance;
+  private volatile StatsCounter stats = StatsCounter.disabled();
+  //Lock waits are measured only with enabled statistics, because it costs two reads of clock
+  private volatile boolean statsEnabled;
+  private volatile ObjectName mBeanName;
+  private volatile RemovalListener<K, V> removalListener;
+  private volatile Executor removalExecutor = ForkJoinPool.commonPool();
+  //Removals, which are recorded under locks and wait for delivery to listener
+  private final Queue<Removal<K, V>> removals = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean removalsScheduled = new AtomicBoolean();
+  private volatile WriteBehindLog<K, V> writeBehindLog;
+  //Life time of every entry. Without it every entry lives maxLifeTime
+  private volatile Expiry<K, V> expiry;
 
+  /**
+   * One independently locked part of the cache. Every key always lands in the same segment, so
+   * the segment's list is guarded by the segment's own monitor. Map can be read without lock,
+   * but it's changed only under the monitor too.
+   */
   static class SyncHolder<K, V> {
-    Map<K, Holder<V>>  vals = new HashMap<>();
-    LinkedList<V> vList = new LinkedList<>(Holder::new);
+    Map<K, Holder<K, V>>  vals = new ConcurrentHashMap<>();
+    final EvictionOrder<V> vList;
+    //Hits, which are not applied to vList yet
+    final ReadBuffer<Holder<K, V>> readBuffer = new ReadBuffer<>();
+    final AtomicBoolean drainScheduled = new AtomicBoolean();
+    //Holders by expiration time. Used only without custom eviction policy
+    TimerWheel<K, V> wheel;
+    final int capacity;
+    //Sum of weights of holders in vList and its limit
+    long weightedSize;
+    long maxWeight = Long.MAX_VALUE;
+    //Admission of new keys. Without admittor every new key goes to vList directly
+    Admittor<K> admittor;
+    //New keys in order of access. They wait here, until they are admitted to vList or evicted
+    Map<K, Holder<K, V>> window;
+    int windowCapacity;
+
+    SyncHolder(int capacity, Ordering ordering) {
+      this.capacity = capacity;
+      this.wheel = new TimerWheel<>(DEFAULT_EXPIRATION_TICK, Ticker.system().currentTimeMillis());
+      this.vList = ordering == Ordering.FREQUENCY ? new FrequencyList<>() : new LinkedList<>(Holder::new);
+    }
   }
 
   public MFUCache(int capacity, int step, long maxLifeTime) {
-    this.capacity = capacity;
-    this.step = step;
-    this.maxLifeTime = maxLifeTime;
-    policy = entry -> (System.currentTimeMillis() - entry.getValue().getAddedTime()) > maxLifeTime;
-    initThread();
+    this(capacity, step, maxLifeTime, null, 1);
   }
 
   public MFUCache(int capacity, int step, long maxLifeTime, EvictionPolicy<K, V> policy) {
+    this(capacity, step, maxLifeTime, policy, 1);
+  }
+
+  public MFUCache(int capacity, int step, long maxLifeTime, Ordering ordering) {
+    this(capacity, step, maxLifeTime, null, 1, ordering);
+  }
+
+  protected MFUCache(int capacity, int step, long maxLifeTime, EvictionPolicy<K, V> policy,
+      int concurrencyLevel) {
+    this(capacity, step, maxLifeTime, policy, concurrencyLevel, Ordering.STEP);
+  }
+
+  /**
+   * Creates cache, which keyspace is split into independently locked segments
+   *
+   * @param policy           - custom eviction policy, which is checked for all entries
+   *                         periodically. If null, entry expires, when maxLifeTime or life
+   *                         time of {@link #setExpiry(Expiry)} passed after it was put
+   * @param concurrencyLevel - desired number of segments. It's rounded down to power of two and
+   *                         never exceeds capacity, so every segment can hold at least one value
+   * @param ordering         - structure, which keeps order of values inside segment
+   */
+  protected MFUCache(int capacity, int step, long maxLifeTime, EvictionPolicy<K, V> policy,
+      int concurrencyLevel, Ordering ordering) {
     this.capacity = capacity;
     this.step = step;
     this.maxLifeTime = maxLifeTime;
     this.policy = policy;
-    initThread();
+    this.segments = createSegments(capacity, concurrencyLevel, ordering);
+    this.segmentMask = segments.length - 1;
+    scheduleMaintenance();
   }
 
-  private void initThread() {
-    Runnable runnable = () -> {
-      while (!stop) {
-        synchronized (syncHolder) {
-          syncHolder.vals.entrySet().stream()
+  @SuppressWarnings("unchecked")
+  private static <K, V> SyncHolder<K, V>[] createSegments(int capacity, int concurrencyLevel,
+      Ordering ordering) {
+    int limit = Math.max(1, Math.min(concurrencyLevel, capacity));
+    int count = Integer.highestOneBit(limit);
+    SyncHolder<K, V>[] result = new SyncHolder[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = new SyncHolder<>(capacity / count + (i < capacity % count ? 1 : 0), ordering);
+    }
+    return result;
+  }
+
+  private SyncHolder<K, V> segmentFor(Object key) {
+    return segments[segmentIndex(key)];
+  }
+
+  private int segmentIndex(Object key) {
+    int h = key == null ? 0 : key.hashCode();
+    return (h ^ (h >>> 16)) & segmentMask;
+  }
+
+  /**
+   * Registers periodic maintenance in scheduler, instead of previous registration
+   */
+  private synchronized void scheduleMaintenance() {
+    if (maintenance != null) {
+      maintenance.cancel(false);
+    }
+    if (!stop) {
+      maintenance = scheduler.scheduleWithFixedDelay(() -> performMaintenance(false), expirationTick,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Applies recorded hits and expires entries segment by segment, so only one segment is locked
+   * at a time
+   *
+   * @param scanPolicy - true to check custom eviction policy right now, not by its period
+   */
+  private void performMaintenance(boolean scanPolicy) {
+    long now = ticker.currentTimeMillis();
+    boolean policyScan = policy != null && (scanPolicy || now - lastPolicyScan >= POLICY_SCAN_PERIOD);
+    for (SyncHolder<K, V> segment : segments) {
+      List<K> expired = new ArrayList<>();
+      synchronized (segment) {
+        drainReadBuffer(segment);
+        if (policy == null) {
+          segment.wheel.advance(now,
+              holder -> removeLocked(segment, holder.getKey(), RemovalCause.EXPIRED));
+        } else if (policyScan) {
+          segment.vals.entrySet().stream()
               .filter(policy::needToBeDeleted)
               .map(Entry::getKey)
-              .forEach(this::remove);
+              .forEach(expired::add);
         }
+      }
+      if (!expired.isEmpty()) {
+        synchronized (segment) {
+          expired.forEach(key -> removeLocked(segment, key, RemovalCause.EXPIRED));
+        }
+      }
+      scheduleRemovalDelivery();
+    }
+    if (policyScan) {
+      lastPolicyScan = now;
+    }
+  }
+
+  public V get(K key) {
+    return getIfPresent(key);
+  }
+
+  /**
+   * Method to get value, which is already in cache. Never loads value
+   *
+   * @param key - key of value
+   * @return value or null
+   */
+  public V getIfPresent(K key) {
+    SyncHolder<K, V> segment = segmentFor(key);
+    V value;
+    if (readBuffering) {
+      value = getBuffered(segment, key);
+    } else {
+      long requested = lockRequested();
+      synchronized (segment) {
+        lockAcquired(requested);
+        value = getLocked(segment, key);
+      }
+    }
+    if (value != null) {
+      stats.recordHits(1);
+    } else {
+      stats.recordMisses(1);
+      scheduleRemovalDelivery();
+    }
+    return value;
+  }
+
+  /**
+   * Method to get value or to load it, if it's missing. Only one load of key runs at a time, other
+   * threads, which miss the same key, wait for its result. Loader is called without any lock of
+   * cache, so loads of different keys don't block each other
+   *
+   * @param key    - key of value
+   * @param loader - computes missing value. Null result is returned, but not cached. Value, which
+   *               was put during load, wins over loaded one
+   * @return value from cache or loaded value
+   */
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    V value = getIfPresent(key);
+    return value != null ? value : load(key, loader);
+  }
+
+  /**
+   * Loads value of key, which was missed, or waits for load, which is running already
+   */
+  V load(K key, Function<? super K, ? extends V> loader) {
+    V value;
+    CompletableFuture<V> load = new CompletableFuture<>();
+    CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+    if (inFlight != null) {
+      return waitFor(inFlight);
+    }
+    try {
+      //value could be put by load, which finished just before this one was registered
+      value = peek(key);
+      if (value == null) {
+        long start = System.nanoTime();
         try {
-          TimeUnit.SECONDS.sleep(30);
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          break;
+          value = loader.apply(key);
+        } finally {
+          recordLoad(value != null, System.nanoTime() - start);
+        }
+        if (value != null) {
+          value = putLoaded(key, value);
         }
       }
+      load.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loads.remove(key, load);
+    }
+  }
+
+  /**
+   * Puts loaded value only if key is still absent, so value, which was put during load, isn't
+   * overwritten by loaded one, which can be stale
+   *
+   * @return value, which is in cache after call, or loaded value, if it wasn't admitted
+   */
+  private V putLoaded(K key, V value) {
+    awaitWriteBehindLog();
+    SyncHolder<K, V> segment = segmentFor(key);
+    long requested = lockRequested();
+    V result = value;
+    synchronized (segment) {
+      lockAcquired(requested);
+      drainReadBuffer(segment);
+      Holder<K, V> holder = segment.vals.get(key);
+      V present = holder == null || holder.isExpired(ticker.currentTimeMillis())
+          ? null : holder.getValue();
+      if (present != null) {
+        result = present;
+      } else {
+        putLocked(segment, key, value);
+      }
+    }
+    scheduleRemovalDelivery();
+    return result;
+  }
 
-    };
-    Thread thread = new Thread(runnable);
-    thread.setName("Cache cleaner");
-    thread.start();
+  /**
+   * The same as {@link #get(Object, Function)}
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+    return get(key, loader);
   }
 
-  public V get(K key) {
-    Holder<V> holder;
-    synchronized (syncHolder) {
-      holder = syncHolder.vals.get(key);
+  private static <V> V waitFor(CompletableFuture<V> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  void recordLoad(boolean success, long loadTimeNanos) {
+    if (success) {
+      stats.recordLoadSuccess(loadTimeNanos);
+    } else {
+      stats.recordLoadFailure(loadTimeNanos);
+    }
+  }
+
+  /**
+   * Method to get number of threads, which wait for running load of key
+   */
+  int loadWaiters(K key) {
+    CompletableFuture<V> load = loads.get(key);
+    return load == null ? 0 : load.getNumberOfDependents();
+  }
+
+  /**
+   * Method to read value without promotion and without lock
+   */
+  V peek(K key) {
+    Holder<K, V> holder = segmentFor(key).vals.get(key);
+    return holder == null || holder.isExpired(ticker.currentTimeMillis()) ? null : holder.getValue();
+  }
+
+  /**
+   * Method to get time, when value was put, without promotion and without lock
+   *
+   * @return time of put or -1, if there is no value
+   */
+  long writeTimeOf(K key) {
+    Holder<K, V> holder = segmentFor(key).vals.get(key);
+    return holder == null || holder.getValue() == null ? -1 : holder.getAddedTime();
+  }
+
+  /**
+   * Method to get values of several keys. Every segment is locked only once for all its keys
+   *
+   * @param keys - keys of values
+   * @return values of keys, which are in cache, in order of input keys
+   */
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    //duplicate key is looked up, promoted and counted only once
+    Collection<? extends K> distinct = keys instanceof Set ? keys : new LinkedHashSet<>(keys);
+    Map<K, V> result = new LinkedHashMap<>();
+    List<K>[] bySegment = groupBySegment(distinct);
+    for (int i = 0; i < segments.length; i++) {
+      if (bySegment[i] == null) {
+        continue;
+      }
+      long requested = lockRequested();
+      synchronized (segments[i]) {
+        lockAcquired(requested);
+        drainReadBuffer(segments[i]);
+        for (K key : bySegment[i]) {
+          V value = getLocked(segments[i], key);
+          if (value != null) {
+            result.put(key, value);
+          }
+        }
+      }
+    }
+    stats.recordHits(result.size());
+    stats.recordMisses(distinct.size() - result.size());
+    scheduleRemovalDelivery();
+    //keep order of input keys
+    Map<K, V> ordered = new LinkedHashMap<>();
+    for (K key : distinct) {
+      V value = result.get(key);
+      if (value != null) {
+        ordered.put(key, value);
+      }
+    }
+    return ordered;
+  }
+
+  private V getLocked(SyncHolder<K, V> segment, K key) {
+    Holder<K, V> holder = segment.vals.get(key);
+    long now = ticker.currentTimeMillis();
+    if (holder != null && holder.isExpired(now)) {
+      removeLocked(segment, key, RemovalCause.EXPIRED);
+      holder = null;
     }
     if (holder == null) {
+      if (segment.admittor != null) {
+        segment.admittor.record(key);
+      }
       return null;
     }
-    synchronized (syncHolder) {
-      moveToDesiredPosition(holder);
+    moveToDesiredPosition(segment, holder);
+    V value = holder.getValue();
+    expireAfterRead(segment, holder, value, now);
+    return value;
+  }
+
+  /**
+   * Moves expiration of holder, which was read, if expiry wants it
+   */
+  private void expireAfterRead(SyncHolder<K, V> segment, Holder<K, V> holder, V value, long now) {
+    long expirationTime = expirationAfterRead(holder, value, now);
+    if (expirationTime != holder.getExpirationTime()) {
+      holder.setExpirationTime(expirationTime);
+      segment.wheel.schedule(holder);
+    }
+  }
+
+  /**
+   * Moves expiration of holder, which was read without lock. Read buffer can drop the read, so
+   * expiration is moved right here. Wheel isn't touched, it reschedules holder, which isn't
+   * expired yet, when its bucket comes, and drain of read buffer reschedules it earlier
+   */
+  private void expireAfterReadWithoutLock(Holder<K, V> holder, V value, long now) {
+    long expected = holder.getExpirationTime();
+    long expirationTime = expirationAfterRead(holder, value, now);
+    if (expirationTime != expected) {
+      //write under lock, which happened meanwhile, wins
+      holder.compareAndSetExpirationTime(expected, expirationTime);
+    }
+  }
+
+  private long expirationAfterRead(Holder<K, V> holder, V value, long now) {
+    Expiry<K, V> current = expiry;
+    long expirationTime = holder.getExpirationTime();
+    if (current == null || policy != null || value == null) {
+      return expirationTime;
     }
-    return holder.getValue();
+    return expirationAfter(now,
+        current.expireAfterRead(holder.getKey(), value, now, expirationTime - now));
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<K>[] groupBySegment(Collection<? extends K> keys) {
+    List<K>[] bySegment = new List[segments.length];
+    for (K key : keys) {
+      int index = segmentIndex(key);
+      if (bySegment[index] == null) {
+        bySegment[index] = new ArrayList<>();
+      }
+      bySegment[index].add(key);
+    }
+    return bySegment;
+  }
+
+  /**
+   * Lock free lookup. Promotion is only recorded to read buffer and applied later in batch. Miss is
+   * recorded to admittor like by locked lookup, lock is taken for it, because admittor isn't thread
+   * safe, but miss usually goes to load under lock anyway
+   */
+  private V getBuffered(SyncHolder<K, V> segment, K key) {
+    Holder<K, V> holder = segment.vals.get(key);
+    long now = ticker.currentTimeMillis();
+    //expired holder is left for maintenance, which removes it under lock
+    if (holder == null || holder.isExpired(now)) {
+      if (segment.admittor != null) {
+        synchronized (segment) {
+          if (segment.admittor != null) {
+            segment.admittor.record(key);
+          }
+        }
+      }
+      return null;
+    }
+    V value = holder.getValue();
+    expireAfterReadWithoutLock(holder, value, now);
+    if (segment.readBuffer.offer(holder) == ReadBuffer.FULL) {
+      scheduleDrain(segment);
+    }
+    return value;
+  }
+
+  private void scheduleDrain(SyncHolder<K, V> segment) {
+    if (segment.drainScheduled.compareAndSet(false, true)) {
+      scheduler.execute(() -> {
+        try {
+          synchronized (segment) {
+            drainReadBuffer(segment);
+          }
+        } finally {
+          segment.drainScheduled.set(false);
+        }
+      });
+    }
+  }
+
+  /**
+   * Applies all recorded hits of the segment. Must be called under segment's monitor
+   */
+  private void drainReadBuffer(SyncHolder<K, V> segment) {
+    //expiration was moved by read itself, only wheel follows it here
+    boolean expiring = expiry != null && policy == null;
+    segment.readBuffer.drainTo(holder -> {
+      //holder could be removed from the segment after hit was recorded
+      if (segment.vals.get(holder.getKey()) == holder) {
+        moveToDesiredPosition(segment, holder);
+        if (expiring && holder.getNextInWheel() != null) {
+          segment.wheel.schedule(holder);
+        }
+      }
+    });
+  }
+
+  /**
+   * Applies all pending maintenance work, like recorded hits and expiration, right now
+   */
+  public void cleanUp() {
+    performMaintenance(true);
   }
 
   public void put(K key, V value) {
-    Holder<V> holder;
-    synchronized (syncHolder) {
-      holder = syncHolder.vals.get(key);
+    awaitWriteBehindLog();
+    SyncHolder<K, V> segment = segmentFor(key);
+    long requested = lockRequested();
+    synchronized (segment) {
+      lockAcquired(requested);
+      drainReadBuffer(segment);
+      putLocked(segment, key, value);
+    }
+    scheduleRemovalDelivery();
+  }
+
+  /**
+   * Method to put several values. Every segment is locked only once for all its entries, vetoes
+   * are checked for every entry like by {@link #put(Object, Object)}
+   *
+   * @param map - entries to put
+   */
+  public void putAll(Map<? extends K, ? extends V> map) {
+    List<K>[] bySegment = groupBySegment(map.keySet());
+    for (int i = 0; i < segments.length; i++) {
+      if (bySegment[i] == null) {
+        continue;
+      }
+      awaitWriteBehindLog();
+      long requested = lockRequested();
+      synchronized (segments[i]) {
+        lockAcquired(requested);
+        drainReadBuffer(segments[i]);
+        for (K key : bySegment[i]) {
+          putLocked(segments[i], key, map.get(key));
+        }
+      }
+    }
+    scheduleRemovalDelivery();
+  }
+
+  /**
+   * Method to replace value only if key is still mapped to expected value. Updating veto is checked
+   * like by {@link #put(Object, Object)}
+   *
+   * @param key      - key of value
+   * @param oldValue - expected value
+   * @param newValue - new value
+   * @return true, if value was replaced
+   */
+  public boolean replace(K key, V oldValue, V newValue) {
+    awaitWriteBehindLog();
+    SyncHolder<K, V> segment = segmentFor(key);
+    long requested = lockRequested();
+    synchronized (segment) {
+      lockAcquired(requested);
+      drainReadBuffer(segment);
+      Holder<K, V> holder = segment.vals.get(key);
+      if (holder == null || oldValue == null || !oldValue.equals(holder.getValue())) {
+        return false;
+      }
+      if (!updatingVeto.operationAllowed(key, newValue)) {
+        stats.recordVetoRejection();
+        return false;
+      }
+      setLocked(segment, holder, newValue, false);
     }
+    scheduleRemovalDelivery();
+    return true;
+  }
+
+  private void putLocked(SyncHolder<K, V> segment, K key, V value) {
+    Holder<K, V> holder = segment.vals.get(key);
+    boolean created = holder == null;
     if(holder == null && addingVeto.operationAllowed(key, value)) {
-      synchronized (syncHolder) {
-        syncHolder.vals.put(key, holder = new Holder<>(null));
+      segment.vals.put(key, holder = newHolder(key));
+    } else if(holder == null || !updatingVeto.operationAllowed(key, value)) {
+      stats.recordVetoRejection();
+      return;
+    }
+    try {
+      setLocked(segment, holder, value, created);
+    } catch (RuntimeException | Error e) {
+      //e.g. value doesn't fit into off-heap store, new key must not stay without value
+      if (created) {
+        detach(segment, holder);
+        segment.vals.remove(key, holder);
+        segment.wheel.unschedule(holder);
+        holder.setValue(null);
+      }
+      throw e;
+    }
+    stats.recordPut();
+  }
+
+  /**
+   * Sets value of holder and schedules its expiration
+   *
+   * @param created - true for holder, which had no value before
+   */
+  private void setLocked(SyncHolder<K, V> segment, Holder<K, V> holder, V value, boolean created) {
+    long now = ticker.currentTimeMillis();
+    WriteBehindLog<K, V> logged = writeBehindLog;
+    if (logged != null) {
+      logged.put(holder.getKey(), value, now);
+    }
+    V previous = removalListener != null ? holder.getValue() : null;
+    try {
+      //value is stored before anything else, so failed store changes nothing in cache
+      holder.setValue(value);
+    } catch (RuntimeException | Error e) {
+      if (logged != null) {
+        revertLogged(logged, holder, created);
       }
-    } else if(!updatingVeto.operationAllowed(key, value) || holder == null) {
+      throw e;
+    }
+    if (previous != null && previous != value) {
+      removals.add(new Removal<>(holder.getKey(), previous, RemovalCause.REPLACED));
+    }
+    holder.setAddedTime(now);
+    setWeight(segment, holder, weigher.weigh(holder.getKey(), value));
+    if (policy == null) {
+      holder.setExpirationTime(created ? expirationOf(holder.getKey(), value, holder.getAddedTime())
+          : expirationOfUpdated(holder, value));
+      segment.wheel.schedule(holder);
+    }
+    moveToDesiredPosition(segment, holder);
+  }
+
+  /**
+   * Logs state, which holder kept after failed store, over already logged put of new value
+   */
+  private void revertLogged(WriteBehindLog<K, V> logged, Holder<K, V> holder, boolean created) {
+    if (created) {
+      logged.remove(holder.getKey());
+    } else {
+      logged.put(holder.getKey(), holder.getValue(), holder.getAddedTime());
+    }
+  }
+
+  /**
+   * Waits for room in write-behind log. Must be called without locks
+   */
+  private void awaitWriteBehindLog() {
+    WriteBehindLog<K, V> logged = writeBehindLog;
+    if (logged != null) {
+      logged.awaitCapacity();
+    }
+  }
+
+  private Holder<K, V> newHolder(K key) {
+    OffHeapStore<V> store = offHeapStore;
+    return store == null ? new Holder<>(key, null) : new OffHeapHolder<>(key, store);
+  }
+
+  /**
+   * Method to get expiration time of new entry by expiry or by maxLifeTime
+   */
+  private long expirationOf(K key, V value, long addedTime) {
+    Expiry<K, V> current = expiry;
+    return expirationAfter(addedTime,
+        current == null ? maxLifeTime : current.expireAfterCreate(key, value, addedTime));
+  }
+
+  private long expirationOfUpdated(Holder<K, V> holder, V value) {
+    Expiry<K, V> current = expiry;
+    long now = holder.getAddedTime();
+    return expirationAfter(now, current == null ? maxLifeTime
+        : current.expireAfterUpdate(holder.getKey(), value, now, holder.getExpirationTime() - now));
+  }
+
+  private static long expirationAfter(long time, long duration) {
+    if (duration <= 0) {
+      return time;
+    }
+    return duration >= Long.MAX_VALUE - time ? Long.MAX_VALUE : time + duration;
+  }
+
+  private void moveToDesiredPosition(SyncHolder<K, V> segment, Holder<K, V> holder) {
+    if (segment.admittor != null) {
+      segment.admittor.record(holder.getKey());
+      if (!segment.vList.isLinked(holder)) {
+        moveToWindow(segment, holder);
+        return;
+      }
+    }
+    boolean linked = segment.vList.isLinked(holder);
+    segment.vList.moveNodeWithStep(step, holder);
+    if (!linked) {
+      segment.weightedSize += holder.getWeight();
+    }
+    reduceSizeIfNeeded(segment);
+  }
+
+  /**
+   * Puts new holder to window or marks holder in window as the most recent one. Holders, which
+   * don't fit into window, compete with the last holder of vList
+   */
+  private void moveToWindow(SyncHolder<K, V> segment, Holder<K, V> holder) {
+    if (!holder.isInWindow()) {
+      holder.setInWindow(true);
+      segment.weightedSize += holder.getWeight();
+    }
+    //window is ordered by access, so put moves holder to its end
+    segment.window.put(holder.getKey(), holder);
+    while (segment.window.size() > segment.windowCapacity) {
+      admit(segment, segment.window.values().iterator().next());
+    }
+    reduceSizeIfNeeded(segment);
+  }
+
+  /**
+   * Moves the oldest holder of window to vList, if there is room or if admittor prefers it to the
+   * victim. Otherwise evicts it
+   */
+  private void admit(SyncHolder<K, V> segment, Holder<K, V> candidate) {
+    Holder<K, V> victim = segment.vList.size() < segment.capacity - segment.windowCapacity
+        ? null : (Holder<K, V>) segment.vList.getLastNode();
+    if (victim != null && !segment.admittor.admit(candidate.getKey(), victim.getKey())) {
+      evict(segment, candidate);
       return;
     }
-    holder.setValue(value);
-    synchronized (syncHolder) {
-      moveToDesiredPosition(holder);
+    if (victim != null) {
+      evict(segment, victim);
+    }
+    segment.window.remove(candidate.getKey());
+    candidate.setInWindow(false);
+    segment.vList.moveNodeWithStep(step, candidate);
+  }
+
+  /**
+   * Removes holder from all structures of segment, because there is no room for it
+   */
+  private void evict(SyncHolder<K, V> segment, Holder<K, V> holder) {
+    if (removalListener != null) {
+      removals.add(new Removal<>(holder.getKey(), holder.getValue(), RemovalCause.SIZE));
     }
+    detach(segment, holder);
+    segment.vals.remove(holder.getKey(), holder);
+    segment.wheel.unschedule(holder);
+    holder.setValue(null);
+    if (writeBehindLog != null) {
+      writeBehindLog.remove(holder.getKey());
+    }
+    stats.recordEviction(RemovalCause.SIZE);
   }
 
-  private void moveToDesiredPosition(Holder<V> holder) {
-    syncHolder.vList.moveNodeWithStep(step, holder);
-    reduceSizeIfNeeded();
+  /**
+   * Unlinks holder from vList or window and subtracts its weight
+   */
+  private void detach(SyncHolder<K, V> segment, Holder<K, V> holder) {
+    boolean tracked = segment.vList.unlink(holder);
+    if (holder.isInWindow()) {
+      segment.window.remove(holder.getKey());
+      holder.setInWindow(false);
+      tracked = true;
+    }
+    if (tracked) {
+      segment.weightedSize -= holder.getWeight();
+    }
+  }
+
+  /**
+   * Changes weight of holder. Weighted size of segment counts only holders, which are in vList or
+   * in window
+   */
+  private void setWeight(SyncHolder<K, V> segment, Holder<K, V> holder, int weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("Weight can't be negative: " + weight);
+    }
+    if (segment.vList.isLinked(holder) || holder.isInWindow()) {
+      segment.weightedSize += weight - holder.getWeight();
+    }
+    holder.setWeight(weight);
   }
 
-  private void reduceSizeIfNeeded() {
-    if(syncHolder.vList.size() > capacity) {
-      syncHolder.vList.removeLast();
+  private void reduceSizeIfNeeded(SyncHolder<K, V> segment) {
+    while (segment.vList.size() > segment.capacity
+        || (segment.weightedSize > segment.maxWeight && segment.vList.size() > 0)) {
+      evict(segment, (Holder<K, V>) segment.vList.getLastNode());
     }
   }
 
+  /**
+   * Returns values in order of their usage. For segmented cache order is kept inside every
+   * segment, segments follow one by one
+   */
   public List<V> values() {
-    synchronized (syncHolder) {
-      List<V> result = new ArrayList<>();
-      for (int i = 0; i < syncHolder.vList.size(); i++) {
-        result.add(syncHolder.vList.get(i).getValue());
+    List<V> result = new ArrayList<>();
+    for (SyncHolder<K, V> segment : segments) {
+      synchronized (segment) {
+        drainReadBuffer(segment);
+        segment.vList.forEachNode(node -> result.add(node.getValue()));
+        if (segment.window != null) {
+          segment.window.values().forEach(holder -> result.add(holder.getValue()));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Writes all entries to file in order of their usage. Segments are locked one by one only to
+   * collect references of their holders, values are read, encoded and written one by one without
+   * lock. Segments are merged by rank and position with heap of segments, so the most used entries
+   * of all segments come first, and cache with fewer segments or smaller capacity restores the
+   * hottest entries
+   *
+   * @param file       - target file, it's replaced only when snapshot is complete
+   * @param keyCodec   - codec of keys
+   * @param valueCodec - codec of values
+   * @return number of written entries
+   */
+  public long saveSnapshot(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    PriorityQueue<SnapshotCursor<K, V>> cursors = new PriorityQueue<>(segments.length);
+    for (int i = 0; i < segments.length; i++) {
+      SyncHolder<K, V> segment = segments[i];
+      SnapshotCursor<K, V> cursor = new SnapshotCursor<>(i, segment.vals.size());
+      synchronized (segment) {
+        drainReadBuffer(segment);
+        collectLocked(segment, cursor);
+      }
+      if (cursor.hasNext()) {
+        cursors.add(cursor);
+      }
+    }
+    try (SnapshotWriter<K, V> writer = new SnapshotWriter<>(file, keyCodec, valueCodec)) {
+      while (!cursors.isEmpty()) {
+        SnapshotCursor<K, V> cursor = cursors.poll();
+        Holder<K, V> holder = cursor.holder();
+        long rank = cursor.rank();
+        cursor.position++;
+        if (cursor.hasNext()) {
+          cursors.add(cursor);
+        }
+        //value is read without lock, holder, which was removed meanwhile, has no value anymore
+        V value = holder.getValue();
+        if (value != null) {
+          writer.write(new SnapshotEntry<>(holder.getKey(), value, rank, holder.getAddedTime()));
+        }
       }
-      return result;
+      return writer.commit();
     }
   }
 
+  /**
+   * Adds holders of segment to cursor in order of usage. Window keeps the most recent entries,
+   * which have no rank of their own, so they are ranked like the coldest entries of the list and go
+   * before them
+   */
+  @SuppressWarnings("unchecked")
+  private void collectLocked(SyncHolder<K, V> segment, SnapshotCursor<K, V> cursor) {
+    List<Holder<K, V>> window = new ArrayList<>();
+    if (segment.window != null) {
+      window.addAll(segment.window.values());
+      //access ordered window iterates from the least recent holder
+      Collections.reverse(window);
+    }
+    Node<V> last = segment.vList.getLastNode();
+    long coldest = last == null ? 0 : segment.vList.rankOf(last);
+    boolean[] windowAdded = new boolean[1];
+    segment.vList.forEachNode(node -> {
+      long rank = segment.vList.rankOf(node);
+      if (!windowAdded[0] && rank <= coldest) {
+        window.forEach(holder -> cursor.add(holder, coldest));
+        windowAdded[0] = true;
+      }
+      cursor.add((Holder<K, V>) node, rank);
+    });
+    if (!windowAdded[0]) {
+      window.forEach(holder -> cursor.add(holder, coldest));
+    }
+  }
+
+  /**
+   * Restores entries from snapshot, written by {@link #saveSnapshot(Path, Codec, Codec)}. Entries
+   * are added after entries, which are in cache already, in saved order, so usage order is kept
+   * even for different number of segments. Keys, which are in cache, expired entries and entries,
+   * which don't fit into capacity or weight, are skipped. Adding veto is checked for every entry
+   *
+   * @param file       - snapshot file
+   * @param keyCodec   - codec of keys
+   * @param valueCodec - codec of values
+   * @return number of restored entries
+   */
+  public long loadSnapshot(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    long now = ticker.currentTimeMillis();
+    long[] restored = new long[1];
+    try (SnapshotReader<K, V> reader = new SnapshotReader<>(file, keyCodec, valueCodec)) {
+      reader.forEach(entry -> {
+        SyncHolder<K, V> segment = segmentFor(entry.getKey());
+        synchronized (segment) {
+          if (restoreLocked(segment, entry, now)) {
+            restored[0]++;
+          }
+        }
+      });
+    }
+    return restored[0];
+  }
+
+  /**
+   * Makes cache durable. Entries, which were logged before, are restored first, the most recently
+   * put ones become the most used ones. Then every put and every removal, except of removals by
+   * {@link #close()}, is logged. Log is written in background, so put waits for disk only when
+   * log falls behind. Log isn't closed by cache. Must be called, while cache is empty. Failed or
+   * closed log doesn't fail the cache, it keeps serving from memory, and the failure is available
+   * by {@link WriteBehindLog#getFailure()}
+   *
+   * @param writeBehindLog - log, which is opened on directory of this cache
+   * @return number of restored entries
+   */
+  public long setWriteBehindLog(WriteBehindLog<K, V> writeBehindLog) throws IOException {
+    if (size() > 0) {
+      throw new IllegalStateException("Write-behind log can be set only for empty cache");
+    }
+    List<SnapshotEntry<K, V>> entries = writeBehindLog.recover();
+    long now = ticker.currentTimeMillis();
+    long restored = 0;
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      SnapshotEntry<K, V> entry = entries.get(i);
+      SyncHolder<K, V> segment = segmentFor(entry.getKey());
+      synchronized (segment) {
+        if (restoreLocked(segment, entry, now)) {
+          restored++;
+        }
+      }
+    }
+    this.writeBehindLog = writeBehindLog;
+    return restored;
+  }
+
+  private boolean restoreLocked(SyncHolder<K, V> segment, SnapshotEntry<K, V> entry, long now) {
+    K key = entry.getKey();
+    V value = entry.getValue();
+    int mainCapacity = segment.capacity - (segment.window != null ? segment.windowCapacity : 0);
+    if (segment.vals.containsKey(key) || segment.vList.size() >= mainCapacity
+        || (policy == null && expirationOf(key, value, entry.getWriteTime()) <= now)
+        || !addingVeto.operationAllowed(key, value)) {
+      return false;
+    }
+    int weight = weigher.weigh(key, value);
+    if (weight < 0 || segment.weightedSize + weight > segment.maxWeight) {
+      return false;
+    }
+    Holder<K, V> holder = newHolder(key);
+    holder.setValue(value);
+    holder.setAddedTime(entry.getWriteTime());
+    holder.setWeight(weight);
+    segment.vals.put(key, holder);
+    segment.vList.appendNode(holder, entry.getRank());
+    segment.weightedSize += weight;
+    if (policy == null) {
+      holder.setExpirationTime(expirationOf(key, value, holder.getAddedTime()));
+      segment.wheel.schedule(holder);
+    }
+    return true;
+  }
+
+  /**
+   * Returns list of the first segment. Whole ordering is there only for cache with single segment
+   */
   LinkedList<V> getList() {
-    synchronized (syncHolder) {
-      return syncHolder.vList;
+    synchronized (segments[0]) {
+      return (LinkedList<V>) segments[0].vList;
     }
   }
 
+  int segmentCount() {
+    return segments.length;
+  }
+
   public V remove(K key){
-      synchronized (syncHolder) {
-        if(removingVeto.operationAllowed(key, syncHolder.vals.get(key).getValue())) {
-        Holder<V> holder = syncHolder.vals.get(key);
-        if (holder != null) {
-          V result = holder.getValue();
-          holder.setValue(null);
-          return result;
+    awaitWriteBehindLog();
+    SyncHolder<K, V> segment = segmentFor(key);
+    long requested = lockRequested();
+    V result;
+    synchronized (segment) {
+      lockAcquired(requested);
+      result = removeLocked(segment, key, RemovalCause.EXPLICIT);
+    }
+    scheduleRemovalDelivery();
+    return result;
+  }
+
+  /**
+   * Method to remove several values. Every segment is locked only once for all its keys
+   *
+   * @param keys - keys of values
+   * @return removed values, which removing veto allowed to remove
+   */
+  public Map<K, V> removeAll(Collection<? extends K> keys) {
+    Map<K, V> result = new LinkedHashMap<>();
+    List<K>[] bySegment = groupBySegment(keys);
+    for (int i = 0; i < segments.length; i++) {
+      if (bySegment[i] == null) {
+        continue;
+      }
+      awaitWriteBehindLog();
+      long requested = lockRequested();
+      synchronized (segments[i]) {
+        lockAcquired(requested);
+        for (K key : bySegment[i]) {
+          V value = removeLocked(segments[i], key, RemovalCause.EXPLICIT);
+          if (value != null) {
+            result.put(key, value);
+          }
         }
       }
     }
-    return null;
+    scheduleRemovalDelivery();
+    return result;
   }
 
   /**
-   * Returns amoubt of all keys in cache, whatever values are in there (maybe null. not a real value)
-   * @return
+   * Method to remove value only if it's still mapped to the key
+   *
+   * @param key   - key of value
+   * @param value - expected value
+   * @return true, if value was removed
+   */
+  public boolean remove(K key, V value) {
+    awaitWriteBehindLog();
+    SyncHolder<K, V> segment = segmentFor(key);
+    boolean removed;
+    synchronized (segment) {
+      Holder<K, V> holder = segment.vals.get(key);
+      removed = holder != null && value != null && value.equals(holder.getValue())
+          && removeLocked(segment, key, RemovalCause.EXPLICIT) != null;
+    }
+    scheduleRemovalDelivery();
+    return removed;
+  }
+
+  private V removeLocked(SyncHolder<K, V> segment, K key, RemovalCause cause) {
+    Holder<K, V> holder = segment.vals.get(key);
+    if (holder == null) {
+      return null;
+    }
+    if (!removingVeto.operationAllowed(key, holder.getValue())) {
+      stats.recordVetoRejection();
+      return null;
+    }
+    V result = holder.getValue();
+    if (result != null && writeBehindLog != null) {
+      writeBehindLog.remove(key);
+    }
+    detach(segment, holder);
+    segment.vals.remove(key, holder);
+    segment.wheel.unschedule(holder);
+    holder.setValue(null);
+    if (result != null) {
+      stats.recordEviction(cause);
+      if (removalListener != null) {
+        removals.add(new Removal<>(key, result, cause));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Starts delivery of recorded removals, if it's not running yet. Must be called without locks
+   */
+  private void scheduleRemovalDelivery() {
+    if (removalListener == null || removals.isEmpty()
+        || !removalsScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      removalExecutor.execute(this::deliverRemovals);
+    } catch (RejectedExecutionException e) {
+      removalsScheduled.set(false);
+      log.warn("Delivery of removals is rejected, it'll be retried on next removal", e);
+    }
+  }
+
+  /**
+   * Passes all recorded removals to listener. Only one delivery runs at a time, so listener gets
+   * removals in order they were recorded
+   */
+  private void deliverRemovals() {
+    do {
+      Removal<K, V> removal;
+      while ((removal = removals.poll()) != null) {
+        RemovalListener<K, V> listener = removalListener;
+        if (listener == null) {
+          continue;
+        }
+        try {
+          listener.onRemoval(removal.key, removal.value, removal.cause);
+        } catch (RuntimeException e) {
+          log.warn("Removal listener failed on key {}", removal.key, e);
+        }
+      }
+      removalsScheduled.set(false);
+    } while (!removals.isEmpty() && removalsScheduled.compareAndSet(false, true));
+  }
+
+  private long lockRequested() {
+    return statsEnabled ? System.nanoTime() : 0;
+  }
+
+  private void lockAcquired(long requested) {
+    if (requested != 0) {
+      stats.recordLockWait(System.nanoTime() - requested);
+    }
+  }
+
+  /**
+   * Returns number of entries in cache. Evicted, expired and removed entries leave the cache
+   * completely, so only live entries are counted
    */
   public int size() {
-    synchronized (syncHolder) {
-      return syncHolder.vals.size();
+    int size = 0;
+    for (SyncHolder<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.vals.size();
+      }
     }
+    return size;
+  }
+
+  /**
+   * Returns number of entries without locking segments. It can be a bit stale under concurrent
+   * updates, but it never waits for writers
+   */
+  public long estimatedSize() {
+    long size = 0;
+    for (SyncHolder<K, V> segment : segments) {
+      size += segment.vals.size();
+    }
+    return size;
   }
 
   public void setAddingVeto(AddingVeto<K, V> addingVeto) {
@@ -165,23 +1206,481 @@ public class MFUCache <K, V> implements Closeable, AutoCloseable {
     this.updatingVeto = updatingVeto;
   }
 
-  static class Holder<V> implements Node<V> {
-    private Holder<V> previous;
+  /**
+   * Enables statistics with counter, which can be updated by many threads without contention
+   */
+  public void recordStats() {
+    setStatsCounter(new ConcurrentStatsCounter());
+  }
+
+  /**
+   * Sets recorder of statistics. Statistics are disabled by default
+   *
+   * @param statsCounter - recorder of statistics or {@link StatsCounter#disabled()}
+   */
+  public void setStatsCounter(StatsCounter statsCounter) {
+    this.stats = statsCounter;
+    this.statsEnabled = statsCounter != StatsCounter.disabled();
+  }
+
+  /**
+   * Returns snapshot of statistics. Snapshot is empty, if statistics aren't enabled
+   */
+  public CacheStats stats() {
+    return stats.snapshot();
+  }
+
+  /**
+   * Registers statistics of cache in platform MBean server as
+   * {@code com.sanik.cache:type=MFUCache,name=<name>}. Registration is removed on close
+   *
+   * @param name - name of cache, unique in JVM
+   */
+  public synchronized void registerMBean(String name) {
+    try {
+      ObjectName objectName = new ObjectName("com.sanik.cache:type=MFUCache,name=" + ObjectName.quote(name));
+      unregisterMBean();
+      ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(new CacheStatsBean(this::stats, this::size), objectName);
+      mBeanName = objectName;
+    } catch (JMException e) {
+      throw new IllegalStateException("Statistics of cache can't be registered as " + name, e);
+    }
+  }
+
+  private synchronized void unregisterMBean() {
+    if (mBeanName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(mBeanName);
+    } catch (JMException e) {
+      //bean was unregistered by somebody else
+    }
+    mBeanName = null;
+  }
+
+  /**
+   * Sets listener of evicted, expired, removed and replaced values. Listener is called on common
+   * fork join pool
+   */
+  public void setRemovalListener(RemovalListener<K, V> removalListener) {
+    setRemovalListener(removalListener, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Sets listener of evicted, expired, removed and replaced values. Removals are only queued under
+   * lock of segment and delivered in batches by task of executor, so slow listener doesn't slow
+   * down operations of cache. Removals by {@link #close()} aren't delivered
+   *
+   * @param removalListener - listener, null to stop notifications
+   * @param executor        - executor of deliveries, it should run tasks in other threads
+   */
+  public void setRemovalListener(RemovalListener<K, V> removalListener, Executor executor) {
+    this.removalExecutor = executor;
+    this.removalListener = removalListener;
+  }
+
+  /**
+   * The same as {@link #setAdmittor(IntFunction, int)} with window of
+   * {@value #DEFAULT_WINDOW_PERCENT}% of capacity
+   */
+  public void setAdmittor(IntFunction<? extends Admittor<K>> admittors) {
+    setAdmittor(admittors, DEFAULT_WINDOW_PERCENT);
+  }
+
+  /**
+   * Puts admission filter in front of the list. New key gets into small window, ordered by recency.
+   * Key, which leaves window, replaces the last value of the list only if admittor prefers it, e.g.
+   * {@code cache.setAdmittor(TinyLfuAdmittor::new)} keeps keys, which are used more often. Adding
+   * veto is still checked before. Must be called, while cache is empty
+   *
+   * @param admittors     - creates admittor for segment of given capacity, null to disable admission
+   * @param windowPercent - size of window in percents of capacity, at least one entry
+   */
+  public void setAdmittor(IntFunction<? extends Admittor<K>> admittors, int windowPercent) {
+    if (windowPercent < 0 || windowPercent > 100) {
+      throw new IllegalArgumentException("Window must be from 0 till 100 percents: " + windowPercent);
+    }
+    if (size() > 0) {
+      throw new IllegalStateException("Admission can be changed only for empty cache");
+    }
+    for (SyncHolder<K, V> segment : segments) {
+      synchronized (segment) {
+        if (admittors == null) {
+          segment.admittor = null;
+          segment.window = null;
+          continue;
+        }
+        segment.admittor = admittors.apply(segment.capacity);
+        segment.window = new LinkedHashMap<>(16, 0.75f, true);
+        segment.windowCapacity = Math.min(segment.capacity - 1,
+            Math.max(1, segment.capacity * windowPercent / 100));
+      }
+    }
+  }
+
+  /**
+   * Switches reads to lock free mode. Hit is recorded to striped lossy buffer and promotions are
+   * applied in batches by writer, by {@link #cleanUp()} or by background task, when buffer is full.
+   * Some promotions may be lost under heavy load, but get never waits for the lock
+   *
+   * @param readBuffering - true to enable buffered reads
+   */
+  public void setReadBuffering(boolean readBuffering) {
+    this.readBuffering = readBuffering;
+  }
+
+  /**
+   * Bounds cache by total weight of entries in addition to capacity. Entries are evicted from the
+   * end of the list, until weight is under the limit. Limit is split between segments equally
+   *
+   * @param weigher   - calculates weight of every entry
+   * @param maxWeight - maximal total weight of cache
+   */
+  public void setWeigher(Weigher<K, V> weigher, long maxWeight) {
+    this.weigher = weigher;
+    for (int i = 0; i < segments.length; i++) {
+      SyncHolder<K, V> segment = segments[i];
+      synchronized (segment) {
+        segment.maxWeight = maxWeight / segments.length + (i < maxWeight % segments.length ? 1 : 0);
+        for (Holder<K, V> holder : segment.vals.values()) {
+          if (holder.getValue() != null) {
+            setWeight(segment, holder, weigher.weigh(holder.getKey(), holder.getValue()));
+          }
+        }
+        reduceSizeIfNeeded(segment);
+      }
+    }
+    scheduleRemovalDelivery();
+  }
+
+  /**
+   * Returns total weight of entries in cache. Without weigher every entry weighs 1
+   */
+  public long weightedSize() {
+    long weightedSize = 0;
+    for (SyncHolder<K, V> segment : segments) {
+      synchronized (segment) {
+        weightedSize += segment.weightedSize;
+      }
+    }
+    return weightedSize;
+  }
+
+  /**
+   * Moves values of cache to direct memory. Values are serialized on put and deserialized on every
+   * read, only compact holders stay on heap. Must be called, while cache is empty
+   *
+   * @param offHeapStore - store of values, can be shared by several caches
+   */
+  public void setOffHeapStore(OffHeapStore<V> offHeapStore) {
+    if (size() > 0) {
+      throw new IllegalStateException("Storage of values can be changed only for empty cache");
+    }
+    this.offHeapStore = offHeapStore;
+  }
+
+  /**
+   * Moves background work of cache (expiration, applying of buffered reads) to another scheduler
+   *
+   * @param scheduler - scheduler to use instead of shared one
+   */
+  public void setMaintenanceScheduler(MaintenanceScheduler scheduler) {
+    this.scheduler = scheduler;
+    scheduleMaintenance();
+  }
+
+  /**
+   * Sets accuracy of expiration. Entry is removed not later than one tick after maxLifeTime passed
+   *
+   * @param tick - duration of one tick
+   * @param unit - unit of tick
+   */
+  public void setExpirationTick(long tick, TimeUnit unit) {
+    long tickMillis = unit.toMillis(tick);
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("Tick must be at least one millisecond: " + tick + " " + unit);
+    }
+    this.expirationTick = tickMillis;
+    scheduleMaintenance();
+    rebuildWheels();
+  }
+
+  /**
+   * Replaces wheels of segments with wheels, which start at current time of ticker and use
+   * current tick. Scheduled holders are moved to new wheels
+   */
+  private void rebuildWheels() {
+    for (SyncHolder<K, V> segment : segments) {
+      synchronized (segment) {
+        TimerWheel<K, V> previous = segment.wheel;
+        segment.wheel = new TimerWheel<>(expirationTick, ticker.currentTimeMillis());
+        for (Holder<K, V> holder : segment.vals.values()) {
+          if (holder.getNextInWheel() != null) {
+            previous.unschedule(holder);
+            segment.wheel.schedule(holder);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets source of time for write times and expiration, e.g. {@link Ticker#coarse()} to make
+   * writes and reads cheaper. Must be called, while cache is empty
+   *
+   * @param ticker - source of time
+   */
+  public void setTicker(Ticker ticker) {
+    if (size() > 0) {
+      throw new IllegalStateException("Ticker can be changed only for empty cache");
+    }
+    this.ticker = ticker;
+    this.lastPolicyScan = ticker.currentTimeMillis();
+    rebuildWheels();
+  }
+
+  /**
+   * Method to get source of time of cache, e.g. to keep own times of entries consistent with it
+   */
+  public Ticker getTicker() {
+    return ticker;
+  }
+
+  /**
+   * Method to get current time of cache's ticker
+   */
+  long currentTimeMillis() {
+    return ticker.currentTimeMillis();
+  }
+
+  /**
+   * Sets life time of every entry instead of maxLifeTime. Expiration is checked on every read, so
+   * expired value is never returned, and expired entries are removed by timer wheel in background.
+   * Entries, which are in cache already, keep their expiration time till next write. Can't be used
+   * with custom eviction policy
+   *
+   * @param expiry - calculates life time of entries
+   */
+  public void setExpiry(Expiry<K, V> expiry) {
+    if (policy != null) {
+      throw new IllegalStateException("Expiry can't be used with custom eviction policy");
+    }
+    this.expiry = expiry;
+  }
+
+  /**
+   * Holder, which keeps value in direct memory. Only address of value is kept on heap
+   */
+  static class OffHeapHolder<K, V> extends Holder<K, V> {
+    private final OffHeapStore<V> store;
+    private volatile long address = OffHeapStore.NONE;
+
+    OffHeapHolder(K key, OffHeapStore<V> store) {
+      super(key, null);
+      this.store = store;
+    }
+
+    /**
+     * Value can be read without lock, so memory can be freed and reused during reading. Read is
+     * repeated, until address is the same before and after it
+     */
+    @Override
+    public V getValue() {
+      while (true) {
+        long current = address;
+        try {
+          V value = store.get(current);
+          if (address == current) {
+            return value;
+          }
+        } catch (RuntimeException e) {
+          if (address == current) {
+            throw e;
+          }
+        }
+      }
+    }
+
+    @Override
+    public void setValue(V value) {
+      long previous = address;
+      address = store.put(value);
+      super.setValue(null);
+      store.free(previous);
+    }
+  }
+
+  /**
+   * Holders of one segment in saved order with their ranks. Values aren't copied, they are read,
+   * when holder is written, so snapshot needs only references of holders on heap
+   */
+  private static final class SnapshotCursor<K, V> implements Comparable<SnapshotCursor<K, V>> {
+    private final int segment;
+    private final List<Holder<K, V>> holders;
+    private long[] ranks;
+    private int position;
+
+    SnapshotCursor(int segment, int expectedSize) {
+      this.segment = segment;
+      this.holders = new ArrayList<>(expectedSize);
+      this.ranks = new long[Math.max(expectedSize, 1)];
+    }
+
+    void add(Holder<K, V> holder, long rank) {
+      if (holders.size() == ranks.length) {
+        ranks = Arrays.copyOf(ranks, ranks.length * 2);
+      }
+      ranks[holders.size()] = rank;
+      holders.add(holder);
+    }
+
+    boolean hasNext() {
+      return position < holders.size();
+    }
+
+    Holder<K, V> holder() {
+      return holders.get(position);
+    }
+
+    long rank() {
+      return ranks[position];
+    }
+
+    /**
+     * Higher rank goes first, holders of equal rank are interleaved by their positions in segments
+     */
+    @Override
+    public int compareTo(SnapshotCursor<K, V> other) {
+      if (rank() != other.rank()) {
+        return rank() > other.rank() ? -1 : 1;
+      }
+      if (position != other.position) {
+        return Integer.compare(position, other.position);
+      }
+      return Integer.compare(segment, other.segment);
+    }
+  }
+
+  /**
+   * Removal, which waits for delivery to listener
+   */
+  static final class Removal<K, V> {
+    final K key;
+    final V value;
+    final RemovalCause cause;
+
+    Removal(K key, V value, RemovalCause cause) {
+      this.key = key;
+      this.value = value;
+      this.cause = cause;
+    }
+  }
+
+  static class Holder<K, V> implements FrequencyNode<V> {
+    private Holder<K, V> previous;
 
     //Pointer to next element of list
-    private Holder<V> next;
+    private Holder<K, V> next;
+
+    //Key, under which holder is saved in map
+    private final K key;
+
+    //Value, which saved in current element of list. Volatile, because it could be read without lock
+    private volatile V value;
+
+    private volatile long addedTime;
+
+    private int weight;
 
-    //Value, which saved in current element of list
-    private V value;
+    //True, while holder waits for admission in window of segment
+    private boolean inWindow;
 
-    private long addedTime;
+    //Bucket of frequency ordering, null for step ordering
+    private FrequencyList.Bucket<V> bucket;
+
+    //Time, after which holder should be removed, and neighbours in timer wheel. Time is volatile,
+    //because it's checked by lock free reads
+    private volatile long expirationTime = Long.MAX_VALUE;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<Holder> EXPIRATION_TIME =
+        AtomicLongFieldUpdater.newUpdater(Holder.class, "expirationTime");
+    private Holder<K, V> previousInWheel;
+    private Holder<K, V> nextInWheel;
 
     public Holder() {
+      this.key = null;
     }
 
-    public Holder(V value) {
+    public Holder(K key, V value) {
+      this.key = key;
       this.value = value;
-      setAddedTime(System.currentTimeMillis());
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    int getWeight() {
+      return weight;
+    }
+
+    void setWeight(int weight) {
+      this.weight = weight;
+    }
+
+    boolean isInWindow() {
+      return inWindow;
+    }
+
+    void setInWindow(boolean inWindow) {
+      this.inWindow = inWindow;
+    }
+
+    long getExpirationTime() {
+      return expirationTime;
+    }
+
+    void setExpirationTime(long expirationTime) {
+      this.expirationTime = expirationTime;
+    }
+
+    boolean compareAndSetExpirationTime(long expected, long expirationTime) {
+      return EXPIRATION_TIME.compareAndSet(this, expected, expirationTime);
+    }
+
+    /**
+     * Expired holder isn't returned by reads, even if wheel hasn't removed it yet
+     */
+    boolean isExpired(long now) {
+      return expirationTime <= now;
+    }
+
+    Holder<K, V> getPreviousInWheel() {
+      return previousInWheel;
+    }
+
+    void setPreviousInWheel(Holder<K, V> previousInWheel) {
+      this.previousInWheel = previousInWheel;
+    }
+
+    Holder<K, V> getNextInWheel() {
+      return nextInWheel;
+    }
+
+    void setNextInWheel(Holder<K, V> nextInWheel) {
+      this.nextInWheel = nextInWheel;
+    }
+
+    @Override
+    public FrequencyList.Bucket<V> getBucket() {
+      return bucket;
+    }
+
+    @Override
+    public void setBucket(FrequencyList.Bucket<V> bucket) {
+      this.bucket = bucket;
     }
 
     @Override
@@ -191,7 +1690,7 @@ public class MFUCache <K, V> implements Closeable, AutoCloseable {
 
     @Override
     public void setPrevious(Node<V> previous) {
-      this.previous = (Holder<V>) previous;
+      this.previous = (Holder<K, V>) previous;
     }
 
     @Override
@@ -201,7 +1700,7 @@ public class MFUCache <K, V> implements Closeable, AutoCloseable {
 
     @Override
     public void setNext(Node<V> next) {
-      this.next = (Holder<V>) next;
+      this.next = (Holder<K, V>) next;
     }
 
     @Override
@@ -212,13 +1711,12 @@ public class MFUCache <K, V> implements Closeable, AutoCloseable {
     @Override
     public void setValue(V value) {
       this.value = value;
-      setAddedTime(System.currentTimeMillis());
     }
 
     @Override
     public String toString() {
       return "Holder{" +
-          "value=" + value +
+          "value=" + getValue() +
           '}';
     }
 
@@ -234,26 +1732,49 @@ public class MFUCache <K, V> implements Closeable, AutoCloseable {
   }
 
   public void clear() {
-    synchronized (syncHolder) {
-      Set<K> toRemove = syncHolder.vals.entrySet().stream()
-          .filter(entry -> removingVeto.operationAllowed(entry.getKey(), entry.getValue().getValue()))
-          .map(Entry::getKey)
-          .collect(Collectors.toSet());
-      toRemove.forEach(key -> {
-        syncHolder.vList.remove(syncHolder.vals.get(key).getValue());
-        syncHolder.vals.remove(key);
-      });
+    for (SyncHolder<K, V> segment : segments) {
+      awaitWriteBehindLog();
+      synchronized (segment) {
+        Set<K> toRemove = segment.vals.entrySet().stream()
+            .filter(entry -> removingVeto.operationAllowed(entry.getKey(), entry.getValue().getValue()))
+            .map(Entry::getKey)
+            .collect(Collectors.toSet());
+        toRemove.forEach(key -> {
+          if (writeBehindLog != null) {
+            writeBehindLog.remove(key);
+          }
+          Holder<K, V> holder = segment.vals.remove(key);
+          stats.recordEviction(RemovalCause.EXPLICIT);
+          if (removalListener != null) {
+            removals.add(new Removal<>(key, holder.getValue(), RemovalCause.EXPLICIT));
+          }
+          detach(segment, holder);
+          segment.wheel.unschedule(holder);
+          holder.setValue(null);
+        });
+      }
     }
+    scheduleRemovalDelivery();
   }
 
   public void close() {
     if (stop) return;
     //removes all
-    synchronized (syncHolder) {
-      syncHolder.vals.clear();
-      syncHolder.vList.clear();
+    for (SyncHolder<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.vList.clear();
+        if (segment.window != null) {
+          segment.window.clear();
+        }
+        segment.vals.values().forEach(holder -> holder.setValue(null));
+        segment.vals.clear();
+        segment.wheel.clear();
+        segment.weightedSize = 0;
+      }
     }
-    //stop the thread
+    //stop the maintenance
     stop = true;
+    scheduleMaintenance();
+    unregisterMBean();
   }
 }
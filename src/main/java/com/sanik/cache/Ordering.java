@@ -0,0 +1,17 @@
+package com.sanik.cache;
+
+/**
+ * Structure, which keeps order of values inside cache
+ */
+public enum Ordering {
+  /**
+   * Used value moves step positions closer to start of the list. Promotion costs O(step)
+   */
+  STEP,
+  /**
+   * Used value gets frequency increased by step and is kept in bucket of the same frequency.
+   * Least frequent and least recently promoted value is evicted. Promotion, eviction and
+   * enumeration don't depend on size of the cache
+   */
+  FREQUENCY
+}
@@ -0,0 +1,89 @@
+package com.sanik.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Striped lossy buffer of read events. Readers append without any lock; when stripe is full or
+ * there is a race for slot, event is just dropped - it only means, that one promotion is lost.
+ * Buffer is drained by single thread, which holds lock of the segment.
+ */
+class ReadBuffer<T> {
+  static final int SUCCESS = 0;
+  static final int FAILED = 1;
+  static final int FULL = 2;
+
+  //Number of events in one stripe. Must be power of two
+  static final int STRIPE_SIZE = 16;
+  private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+  private static final int MAX_STRIPES = 16;
+
+  private final Stripe<T>[] stripes;
+  private final int stripeMask;
+
+  static class Stripe<T> {
+    //Position of next event to drain
+    final AtomicLong head = new AtomicLong();
+    //Position of next event to write
+    final AtomicLong tail = new AtomicLong();
+    final AtomicReferenceArray<T> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+  }
+
+  @SuppressWarnings("unchecked")
+  ReadBuffer() {
+    int count = Integer.highestOneBit(
+        Math.min(MAX_STRIPES, Math.max(1, Runtime.getRuntime().availableProcessors())));
+    stripes = new Stripe[count];
+    for (int i = 0; i < count; i++) {
+      stripes[i] = new Stripe<>();
+    }
+    stripeMask = count - 1;
+  }
+
+  /**
+   * Method to record event
+   *
+   * @param t - event
+   * @return SUCCESS if recorded, FAILED if it was dropped because of race, FULL if stripe needs to
+   * be drained
+   */
+  int offer(T t) {
+    long id = Thread.currentThread().getId();
+    Stripe<T> stripe = stripes[(int) (id ^ (id >>> 16)) & stripeMask];
+    long head = stripe.head.get();
+    long tail = stripe.tail.get();
+    long size = tail - head;
+    if (size >= STRIPE_SIZE) {
+      return FULL;
+    }
+    if (stripe.tail.compareAndSet(tail, tail + 1)) {
+      stripe.buffer.lazySet((int) tail & STRIPE_MASK, t);
+      return size + 1 >= STRIPE_SIZE ? FULL : SUCCESS;
+    }
+    return FAILED;
+  }
+
+  /**
+   * Method to pass all recorded events to consumer. Must be called by one thread at a time
+   *
+   * @param consumer - receiver of events
+   */
+  void drainTo(Consumer<T> consumer) {
+    for (Stripe<T> stripe : stripes) {
+      long head = stripe.head.get();
+      long tail = stripe.tail.get();
+      for (; head < tail; head++) {
+        int index = (int) head & STRIPE_MASK;
+        T t = stripe.buffer.get(index);
+        if (t == null) {
+          //writer has taken slot, but hasn't published event yet
+          break;
+        }
+        stripe.buffer.lazySet(index, null);
+        consumer.accept(t);
+      }
+      stripe.head.lazySet(head);
+    }
+  }
+}
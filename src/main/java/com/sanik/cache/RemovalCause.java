@@ -0,0 +1,23 @@
+package com.sanik.cache;
+
+/**
+ * Reason, why entry left the cache
+ */
+public enum RemovalCause {
+  /**
+   * Entry was evicted from the end of the list, because cache exceeded its capacity or weight
+   */
+  SIZE,
+  /**
+   * Entry lived longer than allowed or matched eviction policy
+   */
+  EXPIRED,
+  /**
+   * Entry was removed by user
+   */
+  EXPLICIT,
+  /**
+   * Value was replaced by put of the same key
+   */
+  REPLACED
+}
@@ -0,0 +1,16 @@
+package com.sanik.cache;
+
+/**
+ * Gets values, which left the cache, e.g. to close resources or to publish invalidation. Listener
+ * is called asynchronously, after lock of the cache is released, so it can use the cache
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+
+  /**
+   * @param key   - key of removed entry
+   * @param value - removed value, for {@link RemovalCause#REPLACED} it's the old value
+   * @param cause - reason of removal
+   */
+  void onRemoval(K key, V value, RemovalCause cause);
+}
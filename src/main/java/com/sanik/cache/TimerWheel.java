@@ -0,0 +1,150 @@
+package com.sanik.cache;
+
+import com.sanik.cache.MFUCache.Holder;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel, which keeps holders by their expiration time. Every level has
+ * {@link #BUCKETS} buckets, bucket of level 0 spans one tick, bucket of every next level spans
+ * {@link #BUCKETS} times more. Schedule and unschedule cost constant time, advance visits only
+ * buckets, which time has come, and moves not expired holders to lower levels. Holder expires not
+ * later than one tick after its expiration time. Must be used under lock of the segment.
+ */
+class TimerWheel<K, V> {
+  static final int BUCKETS = 64;
+  private static final int BUCKET_BITS = 6;
+  private static final int BUCKET_MASK = BUCKETS - 1;
+  private static final int LEVELS = 4;
+  //Holders, which expire later, are kept in last level and rescheduled when it's visited
+  private static final long MAX_DELAY_TICKS = 1L << (BUCKET_BITS * LEVELS);
+
+  private final long tick;
+  //Sentinels of circular lists of holders, one per bucket
+  private final Holder<K, V>[][] wheel;
+  //Last tick, which was processed
+  private long currentTick;
+
+  @SuppressWarnings("unchecked")
+  TimerWheel(long tick, long now) {
+    if (tick <= 0) {
+      throw new IllegalArgumentException("Tick must be positive: " + tick);
+    }
+    this.tick = tick;
+    this.currentTick = now / tick;
+    wheel = new Holder[LEVELS][BUCKETS];
+    for (int i = 0; i < LEVELS; i++) {
+      for (int j = 0; j < BUCKETS; j++) {
+        Holder<K, V> sentinel = new Holder<>();
+        sentinel.setPreviousInWheel(sentinel);
+        sentinel.setNextInWheel(sentinel);
+        wheel[i][j] = sentinel;
+      }
+    }
+  }
+
+  /**
+   * Method to add holder or to move it, if it's already in wheel, according to its expiration time
+   *
+   * @param holder - holder with actual expiration time
+   */
+  void schedule(Holder<K, V> holder) {
+    unschedule(holder);
+    //first tick, when holder is surely expired
+    long expirationTime = holder.getExpirationTime();
+    long expirationTick = expirationTime / tick + (expirationTime % tick > 0 ? 1 : 0);
+    long delay = Math.min(Math.max(expirationTick - currentTick, 1), MAX_DELAY_TICKS - 1);
+    long targetTick = currentTick + delay;
+    int level = 0;
+    while (delay >= (1L << (BUCKET_BITS * (level + 1)))) {
+      level++;
+    }
+    int index = (int) (targetTick >>> (BUCKET_BITS * level)) & BUCKET_MASK;
+    link(wheel[level][index], holder);
+  }
+
+  /**
+   * Method to delete holder from wheel
+   *
+   * @param holder - holder, which is not needed to expire anymore
+   */
+  void unschedule(Holder<K, V> holder) {
+    Holder<K, V> next = holder.getNextInWheel();
+    if (next != null) {
+      Holder<K, V> previous = holder.getPreviousInWheel();
+      previous.setNextInWheel(next);
+      next.setPreviousInWheel(previous);
+      holder.setNextInWheel(null);
+      holder.setPreviousInWheel(null);
+    }
+  }
+
+  /**
+   * Method to process all buckets, which time has come
+   *
+   * @param now    - current time
+   * @param expire - receiver of expired holders. They are already out of wheel
+   */
+  void advance(long now, Consumer<Holder<K, V>> expire) {
+    long previousTick = currentTick;
+    long nowTick = now / tick;
+    if (nowTick <= previousTick) {
+      return;
+    }
+    currentTick = nowTick;
+    for (int level = 0; level < LEVELS; level++) {
+      int shift = BUCKET_BITS * level;
+      long previous = previousTick >>> shift;
+      long delta = (nowTick >>> shift) - previous;
+      if (delta <= 0) {
+        break;
+      }
+      for (long i = 1; i <= Math.min(delta, BUCKETS); i++) {
+        process(wheel[level][(int) (previous + i) & BUCKET_MASK], now, expire);
+      }
+    }
+  }
+
+  /**
+   * Method to delete all holders from wheel
+   */
+  void clear() {
+    for (Holder<K, V>[] level : wheel) {
+      for (Holder<K, V> sentinel : level) {
+        while (sentinel.getNextInWheel() != sentinel) {
+          unschedule(sentinel.getNextInWheel());
+        }
+      }
+    }
+  }
+
+  private void process(Holder<K, V> sentinel, long now, Consumer<Holder<K, V>> expire) {
+    //detach whole bucket, so rescheduled holders can't come back to it
+    Holder<K, V> holder = sentinel.getNextInWheel();
+    Holder<K, V> last = sentinel.getPreviousInWheel();
+    if (holder == sentinel) {
+      return;
+    }
+    sentinel.setNextInWheel(sentinel);
+    sentinel.setPreviousInWheel(sentinel);
+    last.setNextInWheel(null);
+    while (holder != null) {
+      Holder<K, V> next = holder.getNextInWheel();
+      holder.setNextInWheel(null);
+      holder.setPreviousInWheel(null);
+      if (holder.getExpirationTime() <= now) {
+        expire.accept(holder);
+      } else {
+        schedule(holder);
+      }
+      holder = next;
+    }
+  }
+
+  private void link(Holder<K, V> sentinel, Holder<K, V> holder) {
+    Holder<K, V> last = sentinel.getPreviousInWheel();
+    holder.setPreviousInWheel(last);
+    holder.setNextInWheel(sentinel);
+    last.setNextInWheel(holder);
+    sentinel.setPreviousInWheel(holder);
+  }
+}
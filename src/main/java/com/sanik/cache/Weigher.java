@@ -0,0 +1,10 @@
+package com.sanik.cache;
+
+/**
+ * Calculates weight of entry, e.g. its size in bytes. Weight is calculated, when value is put, and
+ * isn't changed later
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+  int weigh(K key, V value);
+}
@@ -0,0 +1,22 @@
+package com.sanik.cache.admission;
+
+/**
+ * Decides, whether new key is worth more, than key, which has to be evicted to make room for it.
+ * Every segment of cache has its own admittor, which is called under segment's lock only
+ */
+public interface Admittor<K> {
+
+  /**
+   * Method to record access of key, both hit and miss
+   */
+  void record(K key);
+
+  /**
+   * Method to choose between new key and eviction victim
+   *
+   * @param candidate - key, which wants to get into cache
+   * @param victim    - key, which would be evicted
+   * @return true to evict victim, false to reject candidate
+   */
+  boolean admit(K candidate, K victim);
+}
@@ -0,0 +1,91 @@
+package com.sanik.cache.admission;
+
+/**
+ * Count-Min sketch, which estimates, how often key was used lately. Every key has four 4-bit
+ * counters in different rows, estimation is minimum of them, so it can be bigger than real
+ * frequency because of collisions, but never smaller. When number of increments reaches ten times
+ * of capacity, all counters are halved, so popularity of old keys fades.
+ * Not thread safe, must be guarded by lock of its owner
+ */
+public class FrequencySketch<K> {
+  static final int MAX_FREQUENCY = 15;
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  //Every long keeps 16 counters, 4 of them for every row
+  private final long[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  /**
+   * @param capacity - maximal number of entries of cache. Sketch takes 8 bytes per entry
+   */
+  public FrequencySketch(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+    this.table = new long[size];
+    this.mask = size - 1;
+    this.sampleSize = 10 * Math.max(1, capacity);
+  }
+
+  /**
+   * Method to get estimated frequency of key
+   *
+   * @return frequency from 0 till 15
+   */
+  public int frequency(K key) {
+    long hash = spread(key);
+    int frequency = MAX_FREQUENCY;
+    for (int row = 0; row < SEEDS.length; row++) {
+      frequency = Math.min(frequency, (int) ((table[index(hash, row)] >>> shift(hash, row)) & 0xfL));
+    }
+    return frequency;
+  }
+
+  /**
+   * Method to record usage of key. Counters, which reached maximum, aren't changed
+   */
+  public void increment(K key) {
+    long hash = spread(key);
+    boolean added = false;
+    for (int row = 0; row < SEEDS.length; row++) {
+      int index = index(hash, row);
+      int shift = shift(hash, row);
+      if (((table[index] >>> shift) & 0xfL) < MAX_FREQUENCY) {
+        table[index] += 1L << shift;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  /**
+   * Halves all counters
+   */
+  void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions /= 2;
+  }
+
+  private static long spread(Object key) {
+    long hash = key == null ? 0 : key.hashCode();
+    hash *= 0x9E3779B97F4A7C15L;
+    return hash ^ (hash >>> 29);
+  }
+
+  private int index(long hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  //counter of row is one of four counters in its quarter of the word
+  private static int shift(long hash, int row) {
+    long h = (hash ^ SEEDS[row]) * 0x9E3779B97F4A7C15L;
+    return ((row << 2) + (int) (h >>> 62)) << 2;
+  }
+}
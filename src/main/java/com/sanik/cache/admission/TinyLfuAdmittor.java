@@ -0,0 +1,26 @@
+package com.sanik.cache.admission;
+
+/**
+ * Admits candidate only if it was used more often lately, than victim. Frequencies are estimated by
+ * {@link FrequencySketch}, so one-hit keys and scans don't flush frequently used keys
+ */
+public class TinyLfuAdmittor<K> implements Admittor<K> {
+  private final FrequencySketch<K> sketch;
+
+  /**
+   * @param capacity - capacity of segment, which uses admittor
+   */
+  public TinyLfuAdmittor(int capacity) {
+    this.sketch = new FrequencySketch<>(capacity);
+  }
+
+  @Override
+  public void record(K key) {
+    sketch.increment(key);
+  }
+
+  @Override
+  public boolean admit(K candidate, K victim) {
+    return sketch.frequency(candidate) > sketch.frequency(victim);
+  }
+}
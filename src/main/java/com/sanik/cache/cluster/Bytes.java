@@ -0,0 +1,31 @@
+package com.sanik.cache.cluster;
+
+import java.util.Arrays;
+
+/**
+ * Key of node cache. Keeps encoded key as is and compares it by content
+ */
+public final class Bytes {
+  private final byte[] bytes;
+  private final int hash;
+
+  public Bytes(byte[] bytes) {
+    this.bytes = bytes;
+    this.hash = Arrays.hashCode(bytes);
+  }
+
+  public byte[] toArray() {
+    return bytes;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || o instanceof Bytes && hash == ((Bytes) o).hash
+        && Arrays.equals(bytes, ((Bytes) o).bytes);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
@@ -0,0 +1,117 @@
+package com.sanik.cache.cluster;
+
+import com.sanik.cache.MFUCache;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Node of cache cluster, which serves {@link Protocol} on TCP port. Every connection has own
+ * thread, responses of pipelined requests are flushed together, when there are no more requests
+ * to read
+ */
+@Slf4j
+public class CacheNodeServer implements Closeable, AutoCloseable {
+  private final MFUCache<Bytes, byte[]> cache;
+  private final RequestHandler handler;
+  private final ServerSocket serverSocket;
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+  private volatile boolean closed;
+
+  /**
+   * Binds server and starts accepting of connections
+   *
+   * @param address - address to listen, port 0 picks free port
+   * @param cache   - cache of node, which is owned by server after call
+   */
+  public CacheNodeServer(InetSocketAddress address, MFUCache<Bytes, byte[]> cache)
+      throws IOException {
+    this.cache = cache;
+    this.handler = new RequestHandler(cache);
+    this.serverSocket = new ServerSocket();
+    serverSocket.bind(address);
+    start("CacheNode-" + getAddress().getPort(), this::accept);
+  }
+
+  /**
+   * Method to get address, which server listens
+   */
+  public InetSocketAddress getAddress() {
+    return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+  }
+
+  public MFUCache<Bytes, byte[]> getCache() {
+    return cache;
+  }
+
+  private void accept() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        connections.add(socket);
+        start("CacheNode-" + socket.getRemoteSocketAddress(), () -> serve(socket));
+      } catch (IOException e) {
+        if (!closed) {
+          log.warn("Connection to {} can't be accepted", getAddress(), e);
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket) {
+      InputStream input = new BufferedInputStream(socket.getInputStream());
+      DataInputStream in = new DataInputStream(input);
+      OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+      ByteBuffer request;
+      while ((request = Protocol.readFrame(in)) != null) {
+        ByteBuffer response = handler.handle(request);
+        out.write(response.array(), response.position(), response.remaining());
+        if (input.available() == 0) {
+          out.flush();
+        }
+      }
+    } catch (SocketException e) {
+      //connection is closed by client or by server
+    } catch (IOException e) {
+      log.warn("Connection {} is broken", socket.getRemoteSocketAddress(), e);
+    } finally {
+      connections.remove(socket);
+    }
+  }
+
+  private static void start(String name, Runnable task) {
+    Thread thread = new Thread(task, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stops server, closes connections and cache
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      serverSocket.close();
+      for (Socket socket : connections) {
+        socket.close();
+      }
+    } finally {
+      cache.close();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.sanik.cache.cluster;
+
+import com.sanik.cache.codec.Codec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Client of partitioned cache. Keys are spread over nodes by {@link ConsistentHashRing}, every node
+ * has one pipelined connection, so concurrent callers don't wait for each other's responses. Keys
+ * of multi key get are grouped by node, every node gets one MGET request and all of them are in
+ * flight at once
+ */
+public class ClusterClient<K, V> implements Closeable, AutoCloseable {
+  private final Codec<K> keyCodec;
+  private final Codec<V> valueCodec;
+  private final ConsistentHashRing<InetSocketAddress> ring;
+  private final Map<InetSocketAddress, NodeConnection> connections = new HashMap<>();
+
+  public ClusterClient(List<InetSocketAddress> nodes, Codec<K> keyCodec, Codec<V> valueCodec)
+      throws IOException {
+    this(nodes, keyCodec, valueCodec, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+  }
+
+  /**
+   * Connects to all nodes
+   *
+   * @param nodes        - addresses of nodes, all clients must use the same addresses
+   * @param virtualNodes - points of every node on ring
+   */
+  public ClusterClient(List<InetSocketAddress> nodes, Codec<K> keyCodec, Codec<V> valueCodec,
+      int virtualNodes) throws IOException {
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.ring = new ConsistentHashRing<>(virtualNodes);
+    try {
+      for (InetSocketAddress node : nodes) {
+        connections.put(node, new NodeConnection(node));
+        ring.add(node);
+      }
+    } catch (IOException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Method to find node of key
+   */
+  public InetSocketAddress nodeFor(K key) {
+    return ring.nodeFor(keyCodec.encode(key));
+  }
+
+  public CompletableFuture<V> getAsync(K key) {
+    byte[] bytes = keyCodec.encode(key);
+    return connection(bytes).send(Protocol.get(bytes),
+        response -> response.get() == Protocol.OK ? valueCodec.decode(value(response)) : null);
+  }
+
+  public V get(K key) {
+    return await(getAsync(key));
+  }
+
+  public CompletableFuture<Void> putAsync(K key, V value) {
+    byte[] bytes = keyCodec.encode(key);
+    return connection(bytes).send(Protocol.put(bytes, valueCodec.encode(value)), response -> null);
+  }
+
+  public void put(K key, V value) {
+    await(putAsync(key, value));
+  }
+
+  /**
+   * Method to remove key from its node
+   *
+   * @return future of true, if key was in cache
+   */
+  public CompletableFuture<Boolean> removeAsync(K key) {
+    byte[] bytes = keyCodec.encode(key);
+    return connection(bytes).send(Protocol.delete(bytes),
+        response -> response.get() == Protocol.OK);
+  }
+
+  public boolean remove(K key) {
+    return await(removeAsync(key));
+  }
+
+  /**
+   * Method to get values of many keys with one request per node
+   *
+   * @param keys - keys of values
+   * @return future of values, which are found, in order of keys
+   */
+  public CompletableFuture<Map<K, V>> getAllAsync(Collection<? extends K> keys) {
+    Map<InetSocketAddress, List<K>> keysByNode = new HashMap<>();
+    Map<InetSocketAddress, List<byte[]>> bytesByNode = new HashMap<>();
+    for (K key : keys) {
+      byte[] bytes = keyCodec.encode(key);
+      InetSocketAddress node = ring.nodeFor(bytes);
+      keysByNode.computeIfAbsent(node, n -> new ArrayList<>()).add(key);
+      bytesByNode.computeIfAbsent(node, n -> new ArrayList<>()).add(bytes);
+    }
+    Map<K, V> found = new HashMap<>();
+    List<CompletableFuture<Void>> requests = new ArrayList<>();
+    keysByNode.forEach((node, nodeKeys) -> requests.add(
+        connections.get(node).send(Protocol.mget(bytesByNode.get(node)), response -> {
+          response.get();
+          int count = response.getInt();
+          for (int i = 0; i < count; i++) {
+            if (response.get() == 1) {
+              V value = valueCodec.decode(value(response));
+              synchronized (found) {
+                found.put(nodeKeys.get(i), value);
+              }
+            }
+          }
+          return null;
+        })));
+    return CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).thenApply(done -> {
+      Map<K, V> result = new LinkedHashMap<>();
+      for (K key : keys) {
+        V value = found.get(key);
+        if (value != null) {
+          result.put(key, value);
+        }
+      }
+      return result;
+    });
+  }
+
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    return await(getAllAsync(keys));
+  }
+
+  private NodeConnection connection(byte[] key) {
+    return connections.get(ring.nodeFor(key));
+  }
+
+  /**
+   * Method to get slice of byte array at position of buffer and move position after it
+   */
+  private static ByteBuffer value(ByteBuffer response) {
+    int length = response.getInt();
+    ByteBuffer value = response.slice();
+    value.limit(length);
+    response.position(response.position() + length);
+    return value;
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw new UncheckedIOException((IOException) e.getCause());
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOException failure = null;
+    for (NodeConnection connection : connections.values()) {
+      try {
+        connection.close();
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
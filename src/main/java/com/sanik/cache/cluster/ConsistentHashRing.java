@@ -0,0 +1,76 @@
+package com.sanik.cache.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Ring of consistent hashing. Every node has number of virtual nodes at pseudo random points of
+ * ring, key belongs to the first point after hash of key. Adding or removing of node moves only
+ * keys of its points, other keys stay on their nodes. Not thread safe, ring should be replaced as a
+ * whole, when nodes are changed
+ */
+public class ConsistentHashRing<N> {
+  public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+  private final NavigableMap<Long, N> ring = new TreeMap<>();
+  private final int virtualNodes;
+
+  public ConsistentHashRing() {
+    this(DEFAULT_VIRTUAL_NODES);
+  }
+
+  /**
+   * @param virtualNodes - points of every node, more points spread keys more evenly
+   */
+  public ConsistentHashRing(int virtualNodes) {
+    if (virtualNodes <= 0) {
+      throw new IllegalArgumentException("Number of virtual nodes must be positive");
+    }
+    this.virtualNodes = virtualNodes;
+  }
+
+  /**
+   * Method to add node. Points of node depend only on its toString, so all clients build the same
+   * ring
+   *
+   * @param node - node, which isn't in ring yet
+   */
+  public void add(N node) {
+    for (int i = 0; i < virtualNodes; i++) {
+      ring.put(hash((node + "#" + i).getBytes(StandardCharsets.UTF_8)), node);
+    }
+  }
+
+  public void remove(N node) {
+    ring.values().removeIf(node::equals);
+  }
+
+  /**
+   * Method to find node of key
+   *
+   * @param key - encoded key
+   * @return node or null, if ring is empty
+   */
+  public N nodeFor(byte[] key) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    Map.Entry<Long, N> entry = ring.ceilingEntry(hash(key));
+    return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+  }
+
+  /**
+   * FNV-1a with final mixing of murmur3, because plain FNV places similar keys close to each other
+   */
+  static long hash(byte[] bytes) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : bytes) {
+      hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+    }
+    hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+    hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return hash ^ (hash >>> 33);
+  }
+}
@@ -0,0 +1,126 @@
+package com.sanik.cache.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Pipelined connection to one node. Requests are written without waiting for responses, responses
+ * come in the same order, so own thread of connection completes futures of requests one by one.
+ * Connection, which is broken, fails all its pending requests and isn't reopened
+ */
+class NodeConnection implements Closeable {
+  private final InetSocketAddress address;
+  private final Socket socket;
+  private final OutputStream out;
+  private final DataInputStream in;
+  private final Queue<Pending<?>> pending = new ConcurrentLinkedQueue<>();
+  private volatile IOException failure;
+
+  NodeConnection(InetSocketAddress address) throws IOException {
+    this.address = address;
+    this.socket = new Socket();
+    socket.setTcpNoDelay(true);
+    socket.connect(address);
+    this.out = new BufferedOutputStream(socket.getOutputStream());
+    this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    Thread reader = new Thread(this::read, "CacheClient-" + address);
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  /**
+   * Method to send request
+   *
+   * @param request - request frame
+   * @param decoder - converts body of response with OK or NOT_FOUND status, which is at position
+   * @return future of decoded response
+   */
+  <T> CompletableFuture<T> send(ByteBuffer request, Function<ByteBuffer, T> decoder) {
+    Pending<T> next = new Pending<>(decoder);
+    synchronized (this) {
+      try {
+        if (failure != null) {
+          throw failure;
+        }
+        pending.add(next);
+        out.write(request.array(), request.position(), request.remaining());
+        out.flush();
+      } catch (IOException e) {
+        fail(e);
+        next.future.completeExceptionally(failure);
+      }
+    }
+    return next.future;
+  }
+
+  private void read() {
+    try {
+      ByteBuffer response;
+      while ((response = Protocol.readFrame(in)) != null) {
+        Pending<?> next = pending.poll();
+        if (next == null) {
+          throw new IOException("Unexpected response of " + address);
+        }
+        next.complete(response);
+      }
+      fail(new IOException("Connection is closed by " + address));
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Fails all pending requests. Synchronized like send, so request can't be added between failure
+   * check of send and draining of pending requests
+   */
+  private synchronized void fail(IOException e) {
+    if (failure == null) {
+      failure = e;
+    }
+    Pending<?> next;
+    while ((next = pending.poll()) != null) {
+      next.future.completeExceptionally(failure);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    fail(new IOException("Connection to " + address + " is closed"));
+    socket.close();
+  }
+
+  private class Pending<T> {
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final Function<ByteBuffer, T> decoder;
+
+    private Pending(Function<ByteBuffer, T> decoder) {
+      this.decoder = decoder;
+    }
+
+    private void complete(ByteBuffer response) {
+      try {
+        if (response.get(0) == Protocol.ERROR) {
+          response.get();
+          String message = new String(Protocol.readBytes(response), StandardCharsets.UTF_8);
+          future.completeExceptionally(new IllegalStateException(address + ": " + message));
+        } else {
+          future.complete(decoder.apply(response));
+        }
+      } catch (RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.sanik.cache.cluster;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Binary protocol of cache nodes. Every message is frame: int length of the rest of frame, then
+ * body. Request body starts with operation, response body starts with status. Byte arrays are
+ * written as int length and bytes. Responses are sent in order of requests, so client can send
+ * next requests before it gets responses of previous ones.
+ * <pre>
+ * GET     key               -> OK value | NOT_FOUND
+ * PUT     key value         -> OK
+ * PUT_TTL key value millis  -> OK, served by standalone server only
+ * DELETE  key               -> OK | NOT_FOUND
+ * MGET    count key...      -> OK count (1 value | 0)...
+ * any failed request        -> ERROR message
+ * </pre>
+ */
+public final class Protocol {
+  public static final byte GET = 1;
+  public static final byte PUT = 2;
+  public static final byte DELETE = 3;
+  public static final byte MGET = 4;
+  public static final byte PUT_TTL = 5;
+
+  public static final byte OK = 0;
+  public static final byte NOT_FOUND = 1;
+  public static final byte ERROR = 2;
+
+  public static final int MAX_FRAME = 64 << 20;
+
+  private Protocol() {
+  }
+
+  public static ByteBuffer get(byte[] key) {
+    return putBytes(frame(GET, 4 + key.length), key).flip();
+  }
+
+  public static ByteBuffer put(byte[] key, byte[] value) {
+    return putBytes(putBytes(frame(PUT, 8 + key.length + value.length), key), value).flip();
+  }
+
+  public static ByteBuffer put(byte[] key, byte[] value, long ttlMillis) {
+    return putBytes(putBytes(frame(PUT_TTL, 16 + key.length + value.length), key), value)
+        .putLong(ttlMillis).flip();
+  }
+
+  public static ByteBuffer delete(byte[] key) {
+    return putBytes(frame(DELETE, 4 + key.length), key).flip();
+  }
+
+  public static ByteBuffer mget(List<byte[]> keys) {
+    int size = 4;
+    for (byte[] key : keys) {
+      size += 4 + key.length;
+    }
+    ByteBuffer frame = frame(MGET, size).putInt(keys.size());
+    keys.forEach(key -> putBytes(frame, key));
+    return frame.flip();
+  }
+
+  public static ByteBuffer status(byte status) {
+    return frame(status, 0).flip();
+  }
+
+  public static ByteBuffer value(byte[] value) {
+    return putBytes(frame(OK, 4 + value.length), value).flip();
+  }
+
+  public static ByteBuffer error(String message) {
+    byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+    return putBytes(frame(ERROR, 4 + bytes.length), bytes).flip();
+  }
+
+  /**
+   * Method to create frame with first byte of body, which has room for the rest of body
+   *
+   * @param first - operation or status
+   * @param size  - size of body after first byte
+   */
+  public static ByteBuffer frame(byte first, int size) {
+    return ByteBuffer.allocate(4 + 1 + size).putInt(1 + size).put(first);
+  }
+
+  /**
+   * Method to read body of next frame
+   *
+   * @return body or null, if stream ended before frame
+   */
+  public static ByteBuffer readFrame(DataInputStream in) throws IOException {
+    int length;
+    try {
+      length = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    checkLength(length);
+    byte[] body = new byte[length];
+    in.readFully(body);
+    return ByteBuffer.wrap(body);
+  }
+
+  public static void checkLength(int length) throws IOException {
+    if (length <= 0 || length > MAX_FRAME) {
+      throw new IOException("Broken frame of " + length + " bytes");
+    }
+  }
+
+  /**
+   * Method to read byte array at position of buffer
+   *
+   * @throws IllegalArgumentException - if length is out of buffer
+   */
+  public static byte[] readBytes(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalArgumentException("Broken length " + length + " of byte array");
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Method to write byte array at position of buffer
+   */
+  public static ByteBuffer putBytes(ByteBuffer buffer, byte[] bytes) {
+    return buffer.putInt(bytes.length).put(bytes);
+  }
+}
@@ -0,0 +1,83 @@
+package com.sanik.cache.cluster;
+
+import com.sanik.cache.MFUCache;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves requests of {@link Protocol} from cache of {@link CacheNodeServer}. It doesn't depend on
+ * the way bytes are read and written, it takes body of request and returns response frame.
+ * <p>
+ * Standalone server of server module doesn't use this handler. Its processor writes responses
+ * straight into direct buffer of connection, so pipelined responses are written by one syscall
+ * without response arrays, and it keeps ttl of PUT_TTL together with value, which needs other
+ * format of cached values
+ */
+@Slf4j
+public class RequestHandler {
+  private final MFUCache<Bytes, byte[]> cache;
+
+  public RequestHandler(MFUCache<Bytes, byte[]> cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Method to serve one request
+   *
+   * @param request - body of request frame from position till limit
+   * @return response frame, which is ready to be written
+   */
+  public ByteBuffer handle(ByteBuffer request) {
+    try {
+      byte op = request.get();
+      switch (op) {
+        case Protocol.GET: {
+          byte[] value = cache.getIfPresent(new Bytes(Protocol.readBytes(request)));
+          return value == null ? Protocol.status(Protocol.NOT_FOUND) : Protocol.value(value);
+        }
+        case Protocol.PUT: {
+          Bytes key = new Bytes(Protocol.readBytes(request));
+          cache.put(key, Protocol.readBytes(request));
+          return Protocol.status(Protocol.OK);
+        }
+        case Protocol.DELETE: {
+          byte[] value = cache.remove(new Bytes(Protocol.readBytes(request)));
+          return Protocol.status(value == null ? Protocol.NOT_FOUND : Protocol.OK);
+        }
+        case Protocol.MGET:
+          return mget(request);
+        default:
+          return Protocol.error("Unknown operation " + op);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Request can't be served", e);
+      return Protocol.error(e.toString());
+    }
+  }
+
+  private ByteBuffer mget(ByteBuffer request) {
+    int count = request.getInt();
+    //every key takes at least its length, so count of broken frame can't allocate more than frame
+    if (count < 0 || count > request.remaining() / 4) {
+      return Protocol.error("Broken count " + count + " of keys");
+    }
+    List<byte[]> values = new ArrayList<>(count);
+    int size = 4;
+    for (int i = 0; i < count; i++) {
+      byte[] value = cache.getIfPresent(new Bytes(Protocol.readBytes(request)));
+      values.add(value);
+      size += value == null ? 1 : 1 + 4 + value.length;
+    }
+    ByteBuffer response = Protocol.frame(Protocol.OK, size).putInt(count);
+    for (byte[] value : values) {
+      if (value == null) {
+        response.put((byte) 0);
+      } else {
+        Protocol.putBytes(response.put((byte) 1), value);
+      }
+    }
+    return response.flip();
+  }
+}
@@ -0,0 +1,21 @@
+package com.sanik.cache.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps byte arrays as they are
+ */
+public class ByteArrayCodec implements Codec<byte[]> {
+
+  @Override
+  public byte[] encode(byte[] bytes) {
+    return bytes;
+  }
+
+  @Override
+  public byte[] decode(ByteBuffer buffer) {
+    byte[] result = new byte[buffer.remaining()];
+    buffer.get(result);
+    return result;
+  }
+}
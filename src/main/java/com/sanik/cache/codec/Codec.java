@@ -0,0 +1,25 @@
+package com.sanik.cache.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts objects to bytes and back, so they can be kept outside of heap or written to file
+ */
+public interface Codec<T> {
+
+  /**
+   * Method to convert object to bytes
+   *
+   * @param t - object, not null
+   * @return bytes of object
+   */
+  byte[] encode(T t);
+
+  /**
+   * Method to restore object. Buffer must not be kept after method returns, it can be reused
+   *
+   * @param buffer - bytes of object from position till limit
+   * @return restored object
+   */
+  T decode(ByteBuffer buffer);
+}
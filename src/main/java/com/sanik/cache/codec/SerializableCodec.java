@@ -0,0 +1,42 @@
+package com.sanik.cache.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps any serializable object with java serialization. Slow and verbose, use specific codec if
+ * it's possible
+ */
+public class SerializableCodec<T extends Serializable> implements Codec<T> {
+
+  @Override
+  public byte[] encode(T t) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(t);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can't serialize " + t, e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T decode(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (T) in.readObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can't deserialize object", e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Can't deserialize object", e);
+    }
+  }
+}
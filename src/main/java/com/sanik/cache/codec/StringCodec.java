@@ -0,0 +1,20 @@
+package com.sanik.cache.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps strings in UTF-8
+ */
+public class StringCodec implements Codec<String> {
+
+  @Override
+  public byte[] encode(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public String decode(ByteBuffer buffer) {
+    return StandardCharsets.UTF_8.decode(buffer).toString();
+  }
+}
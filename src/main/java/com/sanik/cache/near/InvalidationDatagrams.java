@@ -0,0 +1,104 @@
+package com.sanik.cache.near;
+
+import com.sanik.cache.codec.Codec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Format of invalidation datagrams of {@link MulticastTransport}. Every datagram has id of sender,
+ * so node ignores its own datagrams.
+ * <p>
+ * Datagram format: magic int, sender id long, number of keys int, then length and bytes of every
+ * key.
+ */
+@Slf4j
+final class InvalidationDatagrams<K> {
+  static final int MAGIC = 0x4D465549;
+  static final int HEADER_SIZE = 4 + 8 + 4;
+  //Fits into one datagram without fragmentation on usual networks
+  static final int MAX_DATAGRAM = 1400;
+  //The largest payload of UDP datagram
+  static final int MAX_PAYLOAD = 65_507;
+  static final int MAX_KEY_LENGTH = MAX_PAYLOAD - HEADER_SIZE - 4;
+
+  private final Codec<K> codec;
+  private final long senderId;
+
+  /**
+   * @param codec    - codec of keys
+   * @param senderId - id of node, which is written to encoded datagrams
+   */
+  InvalidationDatagrams(Codec<K> codec, long senderId) {
+    this.codec = codec;
+    this.senderId = senderId;
+  }
+
+  /**
+   * Splits keys into datagrams. Key, which doesn't fit into datagram alone, gets datagram of its
+   * own size. Key, which is longer than {@link #MAX_KEY_LENGTH}, can't be sent at all, so it's
+   * skipped with warning
+   */
+  List<byte[]> encode(List<K> keys) {
+    List<byte[]> datagrams = new ArrayList<>();
+    List<byte[]> batch = new ArrayList<>();
+    int size = HEADER_SIZE;
+    for (K key : keys) {
+      byte[] bytes = codec.encode(key);
+      if (bytes.length > MAX_KEY_LENGTH) {
+        log.warn("Key of {} bytes is longer than datagram, it isn't invalidated on other nodes",
+            bytes.length);
+        continue;
+      }
+      if (!batch.isEmpty() && size + 4 + bytes.length > MAX_DATAGRAM) {
+        datagrams.add(datagram(batch, size));
+        batch.clear();
+        size = HEADER_SIZE;
+      }
+      batch.add(bytes);
+      size += 4 + bytes.length;
+    }
+    if (!batch.isEmpty()) {
+      datagrams.add(datagram(batch, size));
+    }
+    return datagrams;
+  }
+
+  private byte[] datagram(List<byte[]> keys, int size) {
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(MAGIC).putLong(senderId).putInt(keys.size());
+    keys.forEach(key -> buffer.putInt(key.length).put(key));
+    return buffer.array();
+  }
+
+  /**
+   * Method to read keys of datagram
+   *
+   * @return keys or null, if datagram is foreign or was sent by this node
+   * @throws IllegalArgumentException - if count or length of key is out of datagram
+   */
+  List<K> decode(ByteBuffer datagram) {
+    if (datagram.remaining() < HEADER_SIZE || datagram.getInt() != MAGIC
+        || datagram.getLong() == senderId) {
+      return null;
+    }
+    int count = datagram.getInt();
+    //every key takes at least its length, so broken count can't allocate more than datagram
+    if (count < 0 || count > datagram.remaining() / 4) {
+      throw new IllegalArgumentException("Broken count " + count + " of keys");
+    }
+    List<K> keys = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int length = datagram.getInt();
+      if (length < 0 || length > datagram.remaining()) {
+        throw new IllegalArgumentException("Broken length " + length + " of key");
+      }
+      ByteBuffer key = datagram.slice();
+      key.limit(length);
+      datagram.position(datagram.position() + length);
+      keys.add(codec.decode(key));
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,25 @@
+package com.sanik.cache.near;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Delivers keys of changed entries between nodes. Batch, which is published by node, is delivered
+ * to all other nodes, but not back to the publisher
+ */
+public interface InvalidationTransport<K> extends Closeable {
+
+  /**
+   * Method to send keys to other nodes. Delivery isn't guaranteed by every transport
+   *
+   * @param keys - changed keys
+   */
+  void publish(List<K> keys);
+
+  /**
+   * Sets receiver of keys, which are published by other nodes. Receiver can be called by thread of
+   * transport, so it must be quick
+   */
+  void setListener(Consumer<List<K>> listener);
+}
@@ -0,0 +1,46 @@
+package com.sanik.cache.near;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus inside one JVM, e.g. for tests. Every transport of bus is one node, published keys are passed
+ * to listeners of other transports by publishing thread
+ */
+public class LoopbackBus<K> {
+  private final List<Endpoint> endpoints = new CopyOnWriteArrayList<>();
+
+  /**
+   * Creates transport of new node
+   */
+  public InvalidationTransport<K> connect() {
+    Endpoint endpoint = new Endpoint();
+    endpoints.add(endpoint);
+    return endpoint;
+  }
+
+  private class Endpoint implements InvalidationTransport<K> {
+    private volatile Consumer<List<K>> listener;
+
+    @Override
+    public void publish(List<K> keys) {
+      for (Endpoint endpoint : endpoints) {
+        Consumer<List<K>> receiver = endpoint.listener;
+        if (endpoint != this && receiver != null) {
+          receiver.accept(keys);
+        }
+      }
+    }
+
+    @Override
+    public void setListener(Consumer<List<K>> listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void close() {
+      endpoints.remove(this);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.sanik.cache.near;
+
+import com.sanik.cache.codec.Codec;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transport over UDP multicast group. Batch is sent in as few datagrams as possible, every datagram
+ * has id of sender, so node ignores its own datagrams. Lost datagrams aren't resent, so nodes
+ * should still have maxLifeTime as the last resort. Format of datagrams is described in
+ * {@link InvalidationDatagrams}
+ */
+@Slf4j
+public class MulticastTransport<K> implements InvalidationTransport<K> {
+  private final InetSocketAddress group;
+  private final NetworkInterface networkInterface;
+  private final InvalidationDatagrams<K> datagrams;
+  private final MulticastSocket socket;
+  private final Thread receiver;
+  private volatile Consumer<List<K>> listener;
+  private volatile boolean closed;
+
+  /**
+   * Joins multicast group and starts receiving thread
+   *
+   * @param group            - address and port of multicast group
+   * @param networkInterface - interface to join group on, null for default one
+   * @param codec            - codec of keys
+   */
+  public MulticastTransport(InetSocketAddress group, NetworkInterface networkInterface,
+      Codec<K> codec) throws IOException {
+    this.group = group;
+    this.networkInterface = networkInterface;
+    this.datagrams = new InvalidationDatagrams<>(codec, ThreadLocalRandom.current().nextLong());
+    this.socket = new MulticastSocket(group.getPort());
+    if (networkInterface != null) {
+      socket.setNetworkInterface(networkInterface);
+    }
+    socket.joinGroup(group, networkInterface);
+    receiver = new Thread(this::receive, "Invalidations-" + group);
+    receiver.setDaemon(true);
+    receiver.start();
+  }
+
+  @Override
+  public void publish(List<K> keys) {
+    for (byte[] datagram : datagrams.encode(keys)) {
+      try {
+        socket.send(new DatagramPacket(datagram, datagram.length, group));
+      } catch (IOException e) {
+        log.warn("Invalidation of {} keys can't be sent to {}", keys.size(), group, e);
+      }
+    }
+  }
+
+  @Override
+  public void setListener(Consumer<List<K>> listener) {
+    this.listener = listener;
+  }
+
+  private void receive() {
+    byte[] buffer = new byte[1 << 16];
+    while (!closed) {
+      try {
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        socket.receive(packet);
+        List<K> keys = datagrams.decode(
+            ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength()));
+        Consumer<List<K>> receiver = listener;
+        if (keys != null && !keys.isEmpty() && receiver != null) {
+          receiver.accept(keys);
+        }
+      } catch (SocketException e) {
+        if (!closed) {
+          log.warn("Receiving of invalidations from {} stopped", group, e);
+        }
+        return;
+      } catch (IOException | RuntimeException e) {
+        log.warn("Broken invalidation datagram from {}", group, e);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      socket.leaveGroup(group, networkInterface);
+    } finally {
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.sanik.cache.near;
+
+import com.sanik.cache.MFUCache;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local MFU cache of one node, which is kept coherent with caches of other nodes. Keys, which are
+ * changed on this node, are collected and published in batches, so other nodes drop their copies.
+ * Invalidations from other nodes only remove local entries and aren't published again.
+ * <p>
+ * Other nodes can return stale value during delay of batch and delivery of it, so cache isn't
+ * strongly consistent. Transport can also lose invalidation, e.g. {@link MulticastTransport}
+ * doesn't resend lost UDP datagrams, and then other node silently returns stale value until its
+ * entry expires, so maxLifeTime of local cache is the bound of staleness.
+ * <p>
+ * Batches are published by own thread of near cache, not by shared maintenance scheduler, because
+ * transport can block on I/O or on removal from caches of other nodes.
+ */
+@Slf4j
+public class NearCache<K, V> implements Closeable, AutoCloseable {
+  public static final long DEFAULT_BATCH_DELAY_MILLIS = 10;
+  public static final int DEFAULT_MAX_BATCH = 256;
+
+  private final MFUCache<K, V> cache;
+  private final InvalidationTransport<K> transport;
+  private final ScheduledExecutorService publisher;
+  private final int maxBatch;
+  private final Set<K> pending = ConcurrentHashMap.newKeySet();
+  //True, while full batch waits for publisher, so it's requested only once
+  private final AtomicBoolean publishRequested = new AtomicBoolean();
+
+  public NearCache(MFUCache<K, V> cache, InvalidationTransport<K> transport) {
+    this(cache, transport, DEFAULT_BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_BATCH);
+  }
+
+  /**
+   * @param cache      - local cache, which is owned by near cache after call
+   * @param transport  - transport of invalidations, which is owned by near cache after call
+   * @param batchDelay - how long changed keys are collected before they are published
+   * @param maxBatch   - number of changed keys, which are published without waiting for delay
+   */
+  public NearCache(MFUCache<K, V> cache, InvalidationTransport<K> transport, long batchDelay,
+      TimeUnit unit, int maxBatch) {
+    this.cache = cache;
+    this.transport = transport;
+    this.maxBatch = maxBatch;
+    this.publisher = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "NearCache-publisher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    transport.setListener(this::invalidateLocally);
+    publisher.scheduleWithFixedDelay(this::publish, batchDelay, batchDelay, unit);
+  }
+
+  public V get(K key) {
+    return cache.get(key);
+  }
+
+  public V getIfPresent(K key) {
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * Method to get value or to load it. Loaded value isn't published, because other nodes load it
+   * from the same source
+   */
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    return cache.get(key, loader);
+  }
+
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    return cache.getAll(keys);
+  }
+
+  public void put(K key, V value) {
+    cache.put(key, value);
+    invalidateRemotely(key);
+  }
+
+  public void putAll(Map<? extends K, ? extends V> map) {
+    cache.putAll(map);
+    map.keySet().forEach(this::invalidateRemotely);
+  }
+
+  public V remove(K key) {
+    V value = cache.remove(key);
+    invalidateRemotely(key);
+    return value;
+  }
+
+  /**
+   * Method to drop key on this node and on other nodes, e.g. after the source was changed
+   *
+   * @param key - changed key
+   */
+  public void invalidate(K key) {
+    remove(key);
+  }
+
+  /**
+   * Method to get local cache, e.g. to read its stats. Changes done straight in it aren't published
+   */
+  public MFUCache<K, V> local() {
+    return cache;
+  }
+
+  private void invalidateRemotely(K key) {
+    pending.add(key);
+    if (pending.size() >= maxBatch && publishRequested.compareAndSet(false, true)) {
+      try {
+        publisher.execute(this::publish);
+      } catch (RejectedExecutionException e) {
+        //near cache is closed, close publishes the rest
+        publishRequested.set(false);
+      }
+    }
+  }
+
+  private void invalidateLocally(List<K> keys) {
+    keys.forEach(cache::remove);
+  }
+
+  /**
+   * Publishes keys, which are collected till now. Key, which is changed again during publishing,
+   * stays for next batch
+   */
+  private void publish() {
+    publishRequested.set(false);
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<K> batch = new ArrayList<>();
+    for (K key : pending) {
+      if (pending.remove(key)) {
+        batch.add(key);
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      transport.publish(batch);
+    } catch (RuntimeException e) {
+      log.warn("Invalidation of {} keys failed", batch.size(), e);
+    }
+  }
+
+  /**
+   * Publishes pending keys and closes transport and local cache
+   */
+  @Override
+  public void close() throws IOException {
+    publisher.shutdown();
+    try {
+      if (!publisher.awaitTermination(1, TimeUnit.SECONDS)) {
+        log.warn("Publishing of invalidations didn't stop in time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    publish();
+    try {
+      transport.close();
+    } finally {
+      cache.close();
+    }
+  }
+}
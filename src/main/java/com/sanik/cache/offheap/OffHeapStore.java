@@ -0,0 +1,54 @@
+package com.sanik.cache.offheap;
+
+import com.sanik.cache.codec.Codec;
+
+/**
+ * Keeps values in direct memory in serialized form. Only address of value is kept on heap
+ */
+public class OffHeapStore<V> {
+  //Address, which means no value
+  public static final long NONE = -1;
+
+  private final Codec<V> codec;
+  private final SlabAllocator allocator;
+
+  public OffHeapStore(Codec<V> codec, SlabAllocator allocator) {
+    this.codec = codec;
+    this.allocator = allocator;
+  }
+
+  /**
+   * Method to save value
+   *
+   * @param value - value or null
+   * @return address of value or {@link #NONE} for null
+   */
+  public long put(V value) {
+    return value == null ? NONE : allocator.write(codec.encode(value));
+  }
+
+  /**
+   * Method to restore value
+   *
+   * @param address - address of value
+   * @return value or null for {@link #NONE}
+   */
+  public V get(long address) {
+    return address == NONE ? null : codec.decode(allocator.read(address));
+  }
+
+  /**
+   * Method to release memory of value
+   *
+   * @param address - address of value, which isn't needed anymore
+   */
+  public void free(long address) {
+    if (address != NONE) {
+      allocator.free(address);
+    }
+  }
+
+  public SlabAllocator getAllocator() {
+    return allocator;
+  }
+}
@@ -0,0 +1,148 @@
+package com.sanik.cache.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Allocates chunks of direct memory. Memory is taken from the system by big slabs, which are
+ * cut into chunks of power of two sizes. Freed chunk is kept in list of its size and is reused by
+ * next allocation of the same size. Every chunk keeps length of record in first four bytes.
+ *
+ * <p>Address of chunk keeps size class in highest byte, number of slab in next three bytes and
+ * offset inside slab in lowest four bytes. Allocation and freeing are synchronized, reading and
+ * writing of allocated chunk are not
+ */
+public class SlabAllocator {
+  public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+  private static final int MIN_CHUNK_BITS = 5;
+  private static final int LENGTH_BYTES = Integer.BYTES;
+
+  private final int slabSize;
+  private final long maxMemory;
+  //Copied on growth, so readers don't need lock
+  private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+  //Addresses of free chunks by size class
+  private final long[][] freeChunks;
+  private final int[] freeCounts;
+  //Offset of not used yet part of last slab
+  private int slabOffset;
+  private long usedBytes;
+
+  public SlabAllocator(long maxMemory) {
+    this(DEFAULT_SLAB_SIZE, maxMemory);
+  }
+
+  /**
+   * @param slabSize  - size of one slab, power of two. It's maximal size of one record too
+   * @param maxMemory - limit of memory, which can be taken by slabs
+   */
+  public SlabAllocator(int slabSize, long maxMemory) {
+    if (Integer.bitCount(slabSize) != 1 || slabSize < (1 << MIN_CHUNK_BITS)) {
+      throw new IllegalArgumentException("Slab size must be power of two not less than "
+          + (1 << MIN_CHUNK_BITS) + ": " + slabSize);
+    }
+    this.slabSize = slabSize;
+    this.maxMemory = maxMemory;
+    int classes = Integer.numberOfTrailingZeros(slabSize) - MIN_CHUNK_BITS + 1;
+    freeChunks = new long[classes][16];
+    freeCounts = new int[classes];
+    slabOffset = slabSize;
+  }
+
+  /**
+   * Method to copy bytes to direct memory
+   *
+   * @param bytes - record
+   * @return address of record
+   * @throws IllegalArgumentException if record is bigger than slab
+   * @throws IllegalStateException    if memory limit is reached
+   */
+  public long write(byte[] bytes) {
+    long address = allocate(bytes.length + LENGTH_BYTES);
+    ByteBuffer slab = slabOf(address).duplicate();
+    slab.position(offsetOf(address));
+    slab.putInt(bytes.length);
+    slab.put(bytes);
+    return address;
+  }
+
+  /**
+   * Method to get record without copying
+   *
+   * @param address - address of record
+   * @return read only buffer with bytes of record between position and limit
+   */
+  public ByteBuffer read(long address) {
+    ByteBuffer slab = slabOf(address).asReadOnlyBuffer();
+    int offset = offsetOf(address);
+    int length = slab.getInt(offset);
+    slab.limit(offset + LENGTH_BYTES + length);
+    slab.position(offset + LENGTH_BYTES);
+    return slab;
+  }
+
+  /**
+   * Method to return chunk for reuse
+   *
+   * @param address - address of record, which isn't needed anymore
+   */
+  public synchronized void free(long address) {
+    int sizeClass = (int) (address >>> 56);
+    if (freeCounts[sizeClass] == freeChunks[sizeClass].length) {
+      freeChunks[sizeClass] = Arrays.copyOf(freeChunks[sizeClass], freeCounts[sizeClass] * 2);
+    }
+    freeChunks[sizeClass][freeCounts[sizeClass]++] = address;
+    usedBytes -= chunkSize(sizeClass);
+  }
+
+  /**
+   * Returns bytes in chunks, which are in use now
+   */
+  public synchronized long usedBytes() {
+    return usedBytes;
+  }
+
+  /**
+   * Returns bytes taken from the system by slabs
+   */
+  public synchronized long reservedBytes() {
+    return (long) slabs.length * slabSize;
+  }
+
+  private synchronized long allocate(int size) {
+    if (size > slabSize) {
+      throw new IllegalArgumentException("Record of " + size + " bytes is bigger than slab of " + slabSize);
+    }
+    int sizeClass = Math.max(0, 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_CHUNK_BITS);
+    int chunkSize = chunkSize(sizeClass);
+    usedBytes += chunkSize;
+    if (freeCounts[sizeClass] > 0) {
+      return freeChunks[sizeClass][--freeCounts[sizeClass]];
+    }
+    if (slabOffset + chunkSize > slabSize) {
+      if ((long) (slabs.length + 1) * slabSize > maxMemory) {
+        usedBytes -= chunkSize;
+        throw new IllegalStateException("Off-heap memory limit of " + maxMemory + " bytes is reached");
+      }
+      ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+      grown[slabs.length] = ByteBuffer.allocateDirect(slabSize);
+      slabs = grown;
+      slabOffset = 0;
+    }
+    long address = ((long) sizeClass << 56) | ((long) (slabs.length - 1) << 32) | slabOffset;
+    slabOffset += chunkSize;
+    return address;
+  }
+
+  private int chunkSize(int sizeClass) {
+    return 1 << (sizeClass + MIN_CHUNK_BITS);
+  }
+
+  private ByteBuffer slabOf(long address) {
+    return slabs[(int) ((address >>> 32) & 0xFFFFFF)];
+  }
+
+  private static int offsetOf(long address) {
+    return (int) address;
+  }
+}
@@ -0,0 +1,25 @@
+package com.sanik.cache.persistence;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Entry of cache snapshot
+ */
+@Getter
+@ToString
+public final class SnapshotEntry<K, V> {
+  private final K key;
+  private final V value;
+  //Position data of entry, e.g. frequency, see EvictionOrder.rankOf
+  private final long rank;
+  //Time, when value was put
+  private final long writeTime;
+
+  public SnapshotEntry(K key, V value, long rank, long writeTime) {
+    this.key = key;
+    this.value = value;
+    this.rank = rank;
+    this.writeTime = writeTime;
+  }
+}
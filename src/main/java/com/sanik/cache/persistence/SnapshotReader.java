@@ -0,0 +1,116 @@
+package com.sanik.cache.persistence;
+
+import com.sanik.cache.codec.Codec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads snapshot, written by {@link SnapshotWriter}, through memory mapping. File is mapped by
+ * windows, so snapshot can be bigger than 2 GB and isn't copied to heap, only decoded entries are
+ */
+public class SnapshotReader<K, V> implements Closeable {
+  static final long WINDOW = 1L << 30;
+  private static final int ENTRY_HEADER = 1 + 8 + 8 + 4;
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final Codec<K> keyCodec;
+  private final Codec<V> valueCodec;
+  private MappedByteBuffer buffer;
+  //Position of buffer start in file
+  private long windowStart;
+
+  public SnapshotReader(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    //reader isn't returned to caller, so channel is closed here, if header can't be read
+    try {
+      this.fileSize = channel.size();
+      map(0, 8);
+      if (buffer.getInt() != SnapshotWriter.MAGIC) {
+        throw new IOException("File isn't a cache snapshot: " + file);
+      }
+      int version = buffer.getInt();
+      if (version != SnapshotWriter.VERSION) {
+        throw new IOException("Unsupported version of snapshot " + version + ": " + file);
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Method to pass all entries to consumer in order they were written
+   *
+   * @return number of entries
+   */
+  public long forEach(Consumer<SnapshotEntry<K, V>> consumer) throws IOException {
+    long count = 0;
+    while (true) {
+      ensure(1);
+      if (buffer.get(buffer.position()) == SnapshotWriter.END) {
+        return count;
+      }
+      ensure(ENTRY_HEADER);
+      buffer.get();
+      long rank = buffer.getLong();
+      long writeTime = buffer.getLong();
+      K key = keyCodec.decode(slice(buffer.getInt()));
+      V value = valueCodec.decode(slice(readLength()));
+      consumer.accept(new SnapshotEntry<>(key, value, rank, writeTime));
+      count++;
+    }
+  }
+
+  private int readLength() throws IOException {
+    ensure(4);
+    return buffer.getInt();
+  }
+
+  /**
+   * Returns next bytes as separate buffer and skips them
+   */
+  private ByteBuffer slice(int length) throws IOException {
+    if (length < 0) {
+      throw new IOException("Snapshot is corrupted, negative length " + length);
+    }
+    ensure(length);
+    ByteBuffer result = buffer.slice();
+    result.limit(length);
+    buffer.position(buffer.position() + length);
+    return result;
+  }
+
+  /**
+   * Remaps window from current position, if it has less than needed bytes
+   */
+  private void ensure(int bytes) throws IOException {
+    if (buffer.remaining() >= bytes) {
+      return;
+    }
+    map(windowStart + buffer.position(), bytes);
+  }
+
+  private void map(long position, int bytes) throws IOException {
+    if (fileSize - position < bytes) {
+      throw new IOException("Snapshot is truncated at " + position);
+    }
+    long size = Math.min(fileSize - position, Math.max(WINDOW, bytes));
+    buffer = channel.map(MapMode.READ_ONLY, position, size);
+    windowStart = position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,84 @@
+package com.sanik.cache.persistence;
+
+import com.sanik.cache.codec.Codec;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes snapshot of cache. Entries are written to temporary file, which replaces target file only
+ * on {@link #commit()}, so crash during save never leaves broken snapshot.
+ * <p>
+ * Format: magic and version ints, then every entry as byte 1, rank and write time longs, length
+ * and bytes of key, length and bytes of value. Byte 0 ends the snapshot.
+ */
+public class SnapshotWriter<K, V> implements Closeable {
+  static final int MAGIC = 0x4D465543;
+  static final int VERSION = 1;
+  static final byte ENTRY = 1;
+  static final byte END = 0;
+
+  private final Path file;
+  private final Path temporary;
+  private final Codec<K> keyCodec;
+  private final Codec<V> valueCodec;
+  private final DataOutputStream output;
+  private long count;
+  private boolean committed;
+
+  public SnapshotWriter(Path file, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    this.file = file.toAbsolutePath();
+    this.temporary = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16));
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+  }
+
+  public void write(SnapshotEntry<K, V> entry) throws IOException {
+    byte[] key = keyCodec.encode(entry.getKey());
+    byte[] value = valueCodec.encode(entry.getValue());
+    output.writeByte(ENTRY);
+    output.writeLong(entry.getRank());
+    output.writeLong(entry.getWriteTime());
+    output.writeInt(key.length);
+    output.write(key);
+    output.writeInt(value.length);
+    output.write(value);
+    count++;
+  }
+
+  /**
+   * Finishes snapshot, flushes it to disk and moves it to target file
+   *
+   * @return number of written entries
+   */
+  public long commit() throws IOException {
+    output.writeByte(END);
+    output.close();
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    committed = true;
+    return count;
+  }
+
+  /**
+   * Drops snapshot, if it wasn't committed
+   */
+  @Override
+  public void close() throws IOException {
+    if (!committed) {
+      output.close();
+      Files.deleteIfExists(temporary);
+    }
+  }
+}
@@ -0,0 +1,566 @@
+package com.sanik.cache.persistence;
+
+import com.sanik.cache.codec.Codec;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of puts and removes, which is written behind the cache. Operations are only
+ * added to unbounded queue by caller, background writer takes all queued operations at once,
+ * writes them to the current segment file and forces them to disk once per batch (group commit).
+ * Put and remove never wait, so they can be called under locks of cache. Caller waits, while queue
+ * is longer than queue limit, by {@link #awaitCapacity()} before it takes its locks, so the limit
+ * is soft, it's exceeded by operations of callers, which passed the wait concurrently.
+ * <p>
+ * Log never fails the cache. When writer fails or log is closed, operations are dropped and
+ * counted, the failure is logged once and is returned by {@link #getFailure()}.
+ * <p>
+ * Segment is closed, when it exceeds segment size. When there are enough closed segments, they are
+ * compacted by own thread into one base segment with the last value of every live key, base
+ * segment makes all older segments unnecessary. Recovery reads segments from the newest base one,
+ * torn record at the end of segment is ignored.
+ * <p>
+ * Segment format: magic and version ints, base flag byte, then records. Record is payload length
+ * and CRC32 of payload, payload is type byte, write time long for put, length and bytes of key,
+ * length and bytes of value for put.
+ */
+@Slf4j
+public class WriteBehindLog<K, V> implements Closeable {
+  public static final int DEFAULT_QUEUE_LIMIT = 1 << 16;
+  public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+  public static final int DEFAULT_COMPACTION_THRESHOLD = 4;
+  static final int MAGIC = 0x4D46574C;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 4 + 4 + 1;
+  static final byte PUT = 1;
+  static final byte REMOVE = 2;
+  static final String PREFIX = "log-";
+  static final String SUFFIX = ".wal";
+  private static final int MAX_BATCH = 4096;
+
+  private final Path directory;
+  private final Codec<K> keyCodec;
+  private final Codec<V> valueCodec;
+  private final long segmentSize;
+  private final int compactionThreshold;
+  private final int queueLimit;
+  private final BlockingQueue<Operation<K, V>> queue = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  private final AtomicBoolean compacting = new AtomicBoolean();
+  private volatile Thread compactor;
+  //Guards files of closed segments from concurrent recovery and compaction
+  private final Object segmentsLock = new Object();
+  //Closed segments from the oldest one
+  private final List<Path> closedSegments = new ArrayList<>();
+  private FileChannel current;
+  private Path currentPath;
+  private long nextSequence;
+  private volatile boolean closed;
+  //True, when the last operations are written by close, flush doesn't wait after that
+  private volatile boolean stopped;
+  //Number of queued and written operations, writer notifies waiters of flush on this monitor
+  private final AtomicLong appended = new AtomicLong();
+  private long written;
+  private volatile IOException failure;
+  //Operations, which came after failure or close
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Creates log with default queue limit, segment size and compaction threshold
+   *
+   * @param directory - directory of segments, it's created, if it doesn't exist
+   */
+  public WriteBehindLog(Path directory, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+    this(directory, keyCodec, valueCodec, DEFAULT_QUEUE_LIMIT, DEFAULT_SEGMENT_SIZE,
+        DEFAULT_COMPACTION_THRESHOLD);
+  }
+
+  /**
+   * @param directory           - directory of segments, it's created, if it doesn't exist
+   * @param queueLimit          - number of queued operations, after which callers of
+   *                              {@link #awaitCapacity()} wait for writer
+   * @param segmentSize         - size, after which segment is closed and new one is started
+   * @param compactionThreshold - number of closed segments, which starts compaction
+   */
+  public WriteBehindLog(Path directory, Codec<K> keyCodec, Codec<V> valueCodec, int queueLimit,
+      long segmentSize, int compactionThreshold) throws IOException {
+    this.directory = directory;
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.segmentSize = segmentSize;
+    this.compactionThreshold = Math.max(1, compactionThreshold);
+    this.queueLimit = queueLimit;
+    Files.createDirectories(directory);
+    closedSegments.addAll(liveSegments(existingSegments()));
+    nextSequence = closedSegments.isEmpty() ? 0
+        : sequenceOf(closedSegments.get(closedSegments.size() - 1)) + 1;
+    openSegment();
+    writer = new Thread(this::writeLoop, "WriteBehind-" + directory.getFileName());
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Method to log put. Never waits and never throws, put is dropped, if log is closed or failed
+   *
+   * @param writeTime - time of put, it's restored on recovery
+   */
+  public void put(K key, V value, long writeTime) {
+    append(new Operation<>(PUT, key, value, writeTime));
+  }
+
+  /**
+   * Method to log removal of key. Never waits and never throws like {@link #put}
+   */
+  public void remove(K key) {
+    append(new Operation<>(REMOVE, key, null, 0));
+  }
+
+  /**
+   * Waits, while queue is longer than its limit. Must be called without locks, which writer could
+   * need. Returns at once, if log is closed or failed, and on interrupt, which stays set
+   */
+  public void awaitCapacity() {
+    if (queue.size() < queueLimit) {
+      return;
+    }
+    synchronized (this) {
+      while (queue.size() >= queueLimit && !closed && failure == null) {
+        try {
+          wait(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void append(Operation<K, V> operation) {
+    if (closed || failure != null) {
+      if (dropped.getAndIncrement() == 0) {
+        log.error("Write-behind log {} is closed or failed, operations aren't persisted anymore",
+            directory, failure);
+      }
+      return;
+    }
+    appended.incrementAndGet();
+    queue.add(operation);
+  }
+
+  /**
+   * Method to get failure of writer
+   *
+   * @return failure or null, if writer works or was closed normally
+   */
+  public IOException getFailure() {
+    return failure;
+  }
+
+  /**
+   * Method to get number of operations, which were dropped, because log was closed or failed
+   */
+  public long droppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Waits, until all operations, which were logged before, are written and forced to disk
+   *
+   * @throws IOException - if writer failed
+   */
+  public synchronized void flush() throws IOException {
+    long target = appended.get();
+    while (written < target && failure == null && !stopped) {
+      try {
+        wait(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for flush", e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    if (written < target) {
+      throw new IOException("Log was closed before operations were written: " + directory);
+    }
+  }
+
+  /**
+   * Method to read last state of all keys, which were logged before this log was opened
+   *
+   * @return live entries in order of their last put, from the oldest one
+   */
+  public List<SnapshotEntry<K, V>> recover() throws IOException {
+    Map<ByteBuffer, byte[]> live = new LinkedHashMap<>();
+    synchronized (segmentsLock) {
+      for (Path segment : closedSegments) {
+        readSegment(segment, live);
+      }
+    }
+    List<SnapshotEntry<K, V>> result = new ArrayList<>(live.size());
+    for (byte[] payload : live.values()) {
+      ByteBuffer buffer = ByteBuffer.wrap(payload);
+      buffer.get();
+      long writeTime = buffer.getLong();
+      K key = keyCodec.decode(slice(buffer));
+      V value = valueCodec.decode(slice(buffer));
+      result.add(new SnapshotEntry<>(key, value, 0, writeTime));
+    }
+    return result;
+  }
+
+  /**
+   * Writes all queued operations, stops writer and waits for running compaction
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      writer.join();
+      Thread running = compactor;
+      if (running != null) {
+        running.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while closing write-behind log", e);
+    }
+    try {
+      //operations, which were queued, while writer was stopping
+      List<Operation<K, V>> rest = new ArrayList<>();
+      queue.drainTo(rest);
+      if (failure == null && !rest.isEmpty()) {
+        writeBatch(rest);
+        synchronized (this) {
+          written += rest.size();
+        }
+      }
+    } finally {
+      current.close();
+      synchronized (this) {
+        stopped = true;
+        notifyAll();
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void writeLoop() {
+    List<Operation<K, V>> batch = new ArrayList<>();
+    while (!closed || !queue.isEmpty()) {
+      try {
+        Operation<K, V> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, MAX_BATCH - 1);
+        writeBatch(batch);
+        synchronized (this) {
+          written += batch.size();
+          notifyAll();
+        }
+        batch.clear();
+        if (current.size() >= segmentSize) {
+          rollSegment();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (IOException | RuntimeException e) {
+        log.error("Write-behind log {} failed, operations aren't persisted anymore", directory, e);
+        synchronized (this) {
+          failure = e instanceof IOException ? (IOException) e : new IOException(e);
+          notifyAll();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Writes batch with one write call and one force, that's group commit
+   */
+  private void writeBatch(List<Operation<K, V>> batch) throws IOException {
+    List<byte[]> payloads = new ArrayList<>(batch.size());
+    int size = 0;
+    for (Operation<K, V> operation : batch) {
+      byte[] payload = encode(operation);
+      payloads.add(payload);
+      size += 8 + payload.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    CRC32 crc = new CRC32();
+    for (byte[] payload : payloads) {
+      crc.reset();
+      crc.update(payload);
+      buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    }
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      current.write(buffer);
+    }
+    current.force(false);
+  }
+
+  private byte[] encode(Operation<K, V> operation) {
+    byte[] key = keyCodec.encode(operation.key);
+    if (operation.type == REMOVE) {
+      return ByteBuffer.allocate(1 + 4 + key.length).put(REMOVE).putInt(key.length).put(key)
+          .array();
+    }
+    byte[] value = valueCodec.encode(operation.value);
+    return ByteBuffer.allocate(1 + 8 + 4 + key.length + 4 + value.length)
+        .put(PUT).putLong(operation.writeTime)
+        .putInt(key.length).put(key)
+        .putInt(value.length).put(value)
+        .array();
+  }
+
+  private void rollSegment() throws IOException {
+    current.close();
+    synchronized (segmentsLock) {
+      closedSegments.add(currentPath);
+    }
+    openSegment();
+    if (closedSegmentCount() >= compactionThreshold && compacting.compareAndSet(false, true)) {
+      Thread thread = new Thread(this::compactLoop,
+          "WriteBehind-compaction-" + directory.getFileName());
+      thread.setDaemon(true);
+      compactor = thread;
+      thread.start();
+    }
+  }
+
+  /**
+   * Compacts, until there are less closed segments than threshold. Segments, which are closed by
+   * writer during compaction, are compacted by the next round
+   */
+  private void compactLoop() {
+    do {
+      try {
+        compact();
+      } catch (IOException | RuntimeException e) {
+        log.warn("Compaction of write-behind log {} failed, it'll be retried", directory, e);
+      } finally {
+        compacting.set(false);
+      }
+    } while (closedSegmentCount() >= compactionThreshold && compacting.compareAndSet(false, true));
+  }
+
+  private void openSegment() throws IOException {
+    currentPath = segmentPath(nextSequence++);
+    current = FileChannel.open(currentPath, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.WRITE);
+    current.write(header(false));
+    current.force(true);
+  }
+
+  /**
+   * Replaces closed segments with one base segment. Base segment takes place of the newest
+   * compacted one, so older segments are ignored by recovery even if deletion fails. Closed
+   * segments aren't changed by writer, so they are read and merged without lock, only replacing of
+   * files is done under lock
+   */
+  void compact() throws IOException {
+    List<Path> compacted;
+    synchronized (segmentsLock) {
+      if (closedSegments.isEmpty()) {
+        return;
+      }
+      compacted = new ArrayList<>(closedSegments);
+    }
+    Map<ByteBuffer, byte[]> live = new LinkedHashMap<>();
+    for (Path segment : compacted) {
+      readSegment(segment, live);
+    }
+    Path target = compacted.get(compacted.size() - 1);
+    Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      channel.write(header(true));
+      CRC32 crc = new CRC32();
+      for (byte[] payload : live.values()) {
+        crc.reset();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (record.hasRemaining()) {
+          channel.write(record);
+        }
+      }
+      channel.force(true);
+    }
+    synchronized (segmentsLock) {
+      Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      for (Path segment : compacted.subList(0, compacted.size() - 1)) {
+        Files.deleteIfExists(segment);
+      }
+      closedSegments.removeAll(compacted);
+      closedSegments.add(0, target);
+    }
+  }
+
+  /**
+   * Applies records of segment to map of live keys. Reading stops at the first broken record
+   */
+  private void readSegment(Path segment, Map<ByteBuffer, byte[]> live) throws IOException {
+    long fileSize = Files.size(segment);
+    try (InputStream file = Files.newInputStream(segment);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(file, 1 << 16))) {
+      if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+        throw new IOException("File isn't a segment of write-behind log: " + segment);
+      }
+      input.readByte();
+      CRC32 crc = new CRC32();
+      while (true) {
+        byte[] payload;
+        int checksum;
+        try {
+          int length = input.readInt();
+          checksum = input.readInt();
+          if (length <= 0 || length > fileSize) {
+            log.warn("Segment {} has broken record, the rest of segment is skipped", segment);
+            return;
+          }
+          payload = new byte[length];
+          input.readFully(payload);
+        } catch (EOFException e) {
+          return;
+        }
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+          log.warn("Segment {} has record with wrong checksum, the rest of segment is skipped",
+              segment);
+          return;
+        }
+        apply(payload, live);
+      }
+    }
+  }
+
+  private static void apply(byte[] payload, Map<ByteBuffer, byte[]> live) {
+    ByteBuffer buffer = ByteBuffer.wrap(payload);
+    byte type = buffer.get();
+    if (type == PUT) {
+      buffer.getLong();
+    }
+    ByteBuffer key = slice(buffer);
+    //the last put must be the last one in order
+    live.remove(key);
+    if (type == PUT) {
+      live.put(key, payload);
+    }
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    ByteBuffer result = buffer.slice();
+    result.limit(length);
+    buffer.position(buffer.position() + length);
+    return result;
+  }
+
+  private static ByteBuffer header(boolean base) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).put((byte) (base ? 1 : 0)).flip();
+    return header;
+  }
+
+  private List<Path> existingSegments() throws IOException {
+    List<Path> result = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+      files.forEach(result::add);
+    }
+    result.sort((first, second) -> Long.compare(sequenceOf(first), sequenceOf(second)));
+    return result;
+  }
+
+  /**
+   * Drops segments, which are older than the newest base segment
+   */
+  private static List<Path> liveSegments(List<Path> segments) throws IOException {
+    for (int i = segments.size() - 1; i > 0; i--) {
+      if (isBase(segments.get(i))) {
+        for (Path older : segments.subList(0, i)) {
+          Files.deleteIfExists(older);
+        }
+        return new ArrayList<>(segments.subList(i, segments.size()));
+      }
+    }
+    return segments;
+  }
+
+  private static boolean isBase(Path segment) throws IOException {
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        //read whole header
+      }
+      return header.position() == HEADER_SIZE && header.getInt(0) == MAGIC && header.get(8) == 1;
+    }
+  }
+
+  private Path segmentPath(long sequence) {
+    return directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+  }
+
+  private static long sequenceOf(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+  }
+
+  int closedSegmentCount() {
+    synchronized (segmentsLock) {
+      return closedSegments.size();
+    }
+  }
+
+  /**
+   * Put or remove, which waits in queue
+   */
+  private static final class Operation<K, V> {
+    final byte type;
+    final K key;
+    final V value;
+    final long writeTime;
+
+    Operation(byte type, K key, V value, long writeTime) {
+      this.type = type;
+      this.key = key;
+      this.value = value;
+      this.writeTime = writeTime;
+    }
+  }
+}
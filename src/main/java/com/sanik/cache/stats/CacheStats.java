@@ -0,0 +1,76 @@
+package com.sanik.cache.stats;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable snapshot of cache statistics
+ */
+@Getter
+@ToString
+public final class CacheStats {
+  public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0, 0, 0, 0,
+      LatencyHistogram.EMPTY, LatencyHistogram.EMPTY);
+
+  private final long hitCount;
+  private final long missCount;
+  private final long putCount;
+  //Evictions because of capacity or weight
+  private final long sizeEvictionCount;
+  private final long expiredEvictionCount;
+  private final long explicitRemovalCount;
+  private final long vetoRejectionCount;
+  private final long loadSuccessCount;
+  private final long loadFailureCount;
+  private final LatencyHistogram loadTime;
+  private final LatencyHistogram lockWait;
+
+  public CacheStats(long hitCount, long missCount, long putCount, long sizeEvictionCount,
+      long expiredEvictionCount, long explicitRemovalCount, long vetoRejectionCount,
+      long loadSuccessCount, long loadFailureCount, LatencyHistogram loadTime,
+      LatencyHistogram lockWait) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.putCount = putCount;
+    this.sizeEvictionCount = sizeEvictionCount;
+    this.expiredEvictionCount = expiredEvictionCount;
+    this.explicitRemovalCount = explicitRemovalCount;
+    this.vetoRejectionCount = vetoRejectionCount;
+    this.loadSuccessCount = loadSuccessCount;
+    this.loadFailureCount = loadFailureCount;
+    this.loadTime = loadTime;
+    this.lockWait = lockWait;
+  }
+
+  public long requestCount() {
+    return hitCount + missCount;
+  }
+
+  /**
+   * Returns part of requests, which were hits, or 1, if there were no requests
+   */
+  public double hitRate() {
+    long requests = requestCount();
+    return requests == 0 ? 1 : (double) hitCount / requests;
+  }
+
+  /**
+   * Returns evictions by size and by expiration. Explicit removals aren't counted
+   */
+  public long evictionCount() {
+    return sizeEvictionCount + expiredEvictionCount;
+  }
+
+  /**
+   * Method to sum statistics, e.g. of several caches
+   */
+  public CacheStats plus(CacheStats other) {
+    return new CacheStats(hitCount + other.hitCount, missCount + other.missCount,
+        putCount + other.putCount, sizeEvictionCount + other.sizeEvictionCount,
+        expiredEvictionCount + other.expiredEvictionCount,
+        explicitRemovalCount + other.explicitRemovalCount,
+        vetoRejectionCount + other.vetoRejectionCount, loadSuccessCount + other.loadSuccessCount,
+        loadFailureCount + other.loadFailureCount, loadTime.plus(other.loadTime),
+        lockWait.plus(other.lockWait));
+  }
+}
@@ -0,0 +1,92 @@
+package com.sanik.cache.stats;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * JMX view of cache statistics. Every attribute takes fresh snapshot
+ */
+public class CacheStatsBean implements CacheStatsMXBean {
+  private final Supplier<CacheStats> stats;
+  private final LongSupplier size;
+
+  public CacheStatsBean(Supplier<CacheStats> stats, LongSupplier size) {
+    this.stats = stats;
+    this.size = size;
+  }
+
+  @Override
+  public long getHitCount() {
+    return stats.get().getHitCount();
+  }
+
+  @Override
+  public long getMissCount() {
+    return stats.get().getMissCount();
+  }
+
+  @Override
+  public double getHitRate() {
+    return stats.get().hitRate();
+  }
+
+  @Override
+  public long getPutCount() {
+    return stats.get().getPutCount();
+  }
+
+  @Override
+  public long getSizeEvictionCount() {
+    return stats.get().getSizeEvictionCount();
+  }
+
+  @Override
+  public long getExpiredEvictionCount() {
+    return stats.get().getExpiredEvictionCount();
+  }
+
+  @Override
+  public long getExplicitRemovalCount() {
+    return stats.get().getExplicitRemovalCount();
+  }
+
+  @Override
+  public long getVetoRejectionCount() {
+    return stats.get().getVetoRejectionCount();
+  }
+
+  @Override
+  public long getLoadSuccessCount() {
+    return stats.get().getLoadSuccessCount();
+  }
+
+  @Override
+  public long getLoadFailureCount() {
+    return stats.get().getLoadFailureCount();
+  }
+
+  @Override
+  public double getAverageLoadTime() {
+    return stats.get().getLoadTime().getMeanNanos();
+  }
+
+  @Override
+  public long getLoadTime99thPercentile() {
+    return stats.get().getLoadTime().getPercentileNanos(99);
+  }
+
+  @Override
+  public double getAverageLockWait() {
+    return stats.get().getLockWait().getMeanNanos();
+  }
+
+  @Override
+  public long getLockWait99thPercentile() {
+    return stats.get().getLockWait().getPercentileNanos(99);
+  }
+
+  @Override
+  public long getEstimatedSize() {
+    return size.getAsLong();
+  }
+}
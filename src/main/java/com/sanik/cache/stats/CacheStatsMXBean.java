@@ -0,0 +1,37 @@
+package com.sanik.cache.stats;
+
+/**
+ * Statistics of cache for JMX. Durations are in nanoseconds
+ */
+public interface CacheStatsMXBean {
+
+  long getHitCount();
+
+  long getMissCount();
+
+  double getHitRate();
+
+  long getPutCount();
+
+  long getSizeEvictionCount();
+
+  long getExpiredEvictionCount();
+
+  long getExplicitRemovalCount();
+
+  long getVetoRejectionCount();
+
+  long getLoadSuccessCount();
+
+  long getLoadFailureCount();
+
+  double getAverageLoadTime();
+
+  long getLoadTime99thPercentile();
+
+  double getAverageLockWait();
+
+  long getLockWait99thPercentile();
+
+  long getEstimatedSize();
+}
@@ -0,0 +1,78 @@
+package com.sanik.cache.stats;
+
+import com.sanik.cache.RemovalCause;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter, which can be updated by many threads without contention. Every counter is LongAdder,
+ * so threads update different cells and sum is calculated only by snapshot
+ */
+public class ConcurrentStatsCounter implements StatsCounter {
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder[] evictions = new LongAdder[RemovalCause.values().length];
+  private final LongAdder vetoRejections = new LongAdder();
+  private final LongAdder loadSuccesses = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LatencyRecorder loadTime = new LatencyRecorder();
+  private final LatencyRecorder lockWait = new LatencyRecorder();
+
+  public ConcurrentStatsCounter() {
+    for (int i = 0; i < evictions.length; i++) {
+      evictions[i] = new LongAdder();
+    }
+  }
+
+  @Override
+  public void recordHits(int count) {
+    hits.add(count);
+  }
+
+  @Override
+  public void recordMisses(int count) {
+    misses.add(count);
+  }
+
+  @Override
+  public void recordPut() {
+    puts.increment();
+  }
+
+  @Override
+  public void recordEviction(RemovalCause cause) {
+    evictions[cause.ordinal()].increment();
+  }
+
+  @Override
+  public void recordVetoRejection() {
+    vetoRejections.increment();
+  }
+
+  @Override
+  public void recordLoadSuccess(long loadTimeNanos) {
+    loadSuccesses.increment();
+    loadTime.record(loadTimeNanos);
+  }
+
+  @Override
+  public void recordLoadFailure(long loadTimeNanos) {
+    loadFailures.increment();
+    loadTime.record(loadTimeNanos);
+  }
+
+  @Override
+  public void recordLockWait(long waitTimeNanos) {
+    lockWait.record(waitTimeNanos);
+  }
+
+  @Override
+  public CacheStats snapshot() {
+    return new CacheStats(hits.sum(), misses.sum(), puts.sum(),
+        evictions[RemovalCause.SIZE.ordinal()].sum(),
+        evictions[RemovalCause.EXPIRED.ordinal()].sum(),
+        evictions[RemovalCause.EXPLICIT.ordinal()].sum(),
+        vetoRejections.sum(), loadSuccesses.sum(), loadFailures.sum(),
+        loadTime.snapshot(), lockWait.snapshot());
+  }
+}
@@ -0,0 +1,47 @@
+package com.sanik.cache.stats;
+
+import com.sanik.cache.RemovalCause;
+
+/**
+ * Counter, which ignores all events. Used, while statistics aren't enabled
+ */
+enum DisabledStatsCounter implements StatsCounter {
+  INSTANCE;
+
+  @Override
+  public void recordHits(int count) {
+  }
+
+  @Override
+  public void recordMisses(int count) {
+  }
+
+  @Override
+  public void recordPut() {
+  }
+
+  @Override
+  public void recordEviction(RemovalCause cause) {
+  }
+
+  @Override
+  public void recordVetoRejection() {
+  }
+
+  @Override
+  public void recordLoadSuccess(long loadTimeNanos) {
+  }
+
+  @Override
+  public void recordLoadFailure(long loadTimeNanos) {
+  }
+
+  @Override
+  public void recordLockWait(long waitTimeNanos) {
+  }
+
+  @Override
+  public CacheStats snapshot() {
+    return CacheStats.EMPTY;
+  }
+}
@@ -0,0 +1,86 @@
+package com.sanik.cache.stats;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of {@link LatencyRecorder}
+ */
+public final class LatencyHistogram {
+  static final LatencyHistogram EMPTY = new LatencyHistogram(new long[LatencyRecorder.BUCKETS], 0);
+
+  private final long[] counts;
+  private final long count;
+  private final long totalNanos;
+
+  LatencyHistogram(long[] counts, long totalNanos) {
+    this.counts = counts;
+    this.count = Arrays.stream(counts).sum();
+    this.totalNanos = totalNanos;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * Returns average duration in nanoseconds or 0, if nothing was recorded
+   */
+  public double getMeanNanos() {
+    return count == 0 ? 0 : (double) totalNanos / count;
+  }
+
+  /**
+   * Method to get upper bound of percentile. Precision is bucket, so real value is not more than
+   * returned one and more than half of it
+   *
+   * @param percentile - percentile from 0 till 100
+   * @return upper bound of duration in nanoseconds or 0, if nothing was recorded
+   */
+  public long getPercentileNanos(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be from 0 till 100: " + percentile);
+    }
+    long rank = (long) Math.ceil(count * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen > 0 && seen >= rank) {
+        return upperBound(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns count of durations in bucket. Bucket i has durations till {@code 2^i - 1} nanoseconds
+   */
+  public long getBucketCount(int bucket) {
+    return counts[bucket];
+  }
+
+  LatencyHistogram plus(LatencyHistogram other) {
+    long[] sum = new long[counts.length];
+    for (int i = 0; i < sum.length; i++) {
+      sum[i] = counts[i] + other.counts[i];
+    }
+    return new LatencyHistogram(sum, totalNanos + other.totalNanos);
+  }
+
+  private static long upperBound(int bucket) {
+    return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram{" +
+        "count=" + count +
+        ", meanNanos=" + getMeanNanos() +
+        ", p50=" + getPercentileNanos(50) +
+        ", p99=" + getPercentileNanos(99) +
+        '}';
+  }
+}
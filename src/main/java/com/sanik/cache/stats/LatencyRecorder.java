@@ -0,0 +1,39 @@
+package com.sanik.cache.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with buckets by powers of two. Bucket i counts durations from 2^(i-1)
+ * till 2^i - 1 nanoseconds, bucket 0 counts zero durations. Recording is one increment of LongAdder
+ */
+public class LatencyRecorder {
+  static final int BUCKETS = Long.SIZE;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder totalNanos = new LongAdder();
+
+  public LatencyRecorder() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Method to record duration. Negative durations are recorded as zero
+   *
+   * @param nanos - duration in nanoseconds
+   */
+  public void record(long nanos) {
+    long duration = Math.max(0, nanos);
+    buckets[BUCKETS - Long.numberOfLeadingZeros(duration)].increment();
+    totalNanos.add(duration);
+  }
+
+  public LatencyHistogram snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return new LatencyHistogram(counts, totalNanos.sum());
+  }
+}
@@ -0,0 +1,48 @@
+package com.sanik.cache.stats;
+
+import com.sanik.cache.RemovalCause;
+
+/**
+ * Records events of cache. Methods are called on hot path, so they must be cheap and must never
+ * block
+ */
+public interface StatsCounter {
+
+  void recordHits(int count);
+
+  void recordMisses(int count);
+
+  void recordPut();
+
+  void recordEviction(RemovalCause cause);
+
+  /**
+   * Records operation, which wasn't done, because adding, updating or removing veto forbade it
+   */
+  void recordVetoRejection();
+
+  void recordLoadSuccess(long loadTimeNanos);
+
+  /**
+   * Records load, which threw exception or returned null
+   */
+  void recordLoadFailure(long loadTimeNanos);
+
+  /**
+   * Records time, which thread waited for lock of segment
+   */
+  void recordLockWait(long waitTimeNanos);
+
+  /**
+   * Returns snapshot of counters. Counters keep changing during snapshot, so values aren't
+   * consistent with each other under concurrent load
+   */
+  CacheStats snapshot();
+
+  /**
+   * Returns counter, which records nothing
+   */
+  static StatsCounter disabled() {
+    return DisabledStatsCounter.INSTANCE;
+  }
+}
@@ -0,0 +1,47 @@
+package com.sanik.cache.ticker;
+
+import com.sanik.maintenance.MaintenanceScheduler;
+import java.io.Closeable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticker, which keeps time in volatile field and updates it by background task. Reading of time is
+ * one volatile read, but time can be behind system clock up to resolution and scheduling delay
+ */
+public class CoarseTicker implements Ticker, Closeable, AutoCloseable {
+  public static final long DEFAULT_RESOLUTION_MILLIS = 10;
+  static final CoarseTicker SHARED = new CoarseTicker(DEFAULT_RESOLUTION_MILLIS,
+      TimeUnit.MILLISECONDS, MaintenanceScheduler.shared());
+
+  private final Future<?> update;
+  private volatile long now = System.currentTimeMillis();
+
+  /**
+   * Starts updates of time
+   *
+   * @param resolution - period of updates
+   * @param unit       - unit of resolution
+   * @param scheduler  - scheduler of updates
+   */
+  public CoarseTicker(long resolution, TimeUnit unit, MaintenanceScheduler scheduler) {
+    if (unit.toMillis(resolution) <= 0) {
+      throw new IllegalArgumentException("Resolution must be at least one millisecond");
+    }
+    this.update = scheduler.scheduleWithFixedDelay(() -> now = System.currentTimeMillis(),
+        resolution, unit);
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return now;
+  }
+
+  /**
+   * Stops updates, time stays as it was at the last update
+   */
+  @Override
+  public void close() {
+    update.cancel(false);
+  }
+}
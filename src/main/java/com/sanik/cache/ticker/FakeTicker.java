@@ -0,0 +1,36 @@
+package com.sanik.cache.ticker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ticker, which is moved only manually. Makes tests of expiration deterministic and fast
+ */
+public class FakeTicker implements Ticker {
+  private final AtomicLong now;
+
+  public FakeTicker() {
+    this(0);
+  }
+
+  public FakeTicker(long startMillis) {
+    this.now = new AtomicLong(startMillis);
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return now.get();
+  }
+
+  /**
+   * Method to move time forward
+   *
+   * @param duration - how far to move
+   * @param unit     - unit of duration
+   * @return this ticker
+   */
+  public FakeTicker advance(long duration, TimeUnit unit) {
+    now.addAndGet(unit.toMillis(duration));
+    return this;
+  }
+}
@@ -0,0 +1,13 @@
+package com.sanik.cache.ticker;
+
+/**
+ * Ticker, which reads system clock on every call. Used, if other one isn't set
+ */
+enum SystemTicker implements Ticker {
+  INSTANCE;
+
+  @Override
+  public long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+}
@@ -0,0 +1,31 @@
+package com.sanik.cache.ticker;
+
+/**
+ * Source of time for caches. Write times and expiration are measured by it, so it can be replaced
+ * by cheaper or by manually controlled clock
+ */
+@FunctionalInterface
+public interface Ticker {
+
+  /**
+   * Method to get current time
+   *
+   * @return time in milliseconds, only differences of results are meaningful
+   */
+  long currentTimeMillis();
+
+  /**
+   * Method to get ticker, which reads {@link System#currentTimeMillis()} on every call
+   */
+  static Ticker system() {
+    return SystemTicker.INSTANCE;
+  }
+
+  /**
+   * Method to get coarse ticker, which is shared by all caches. It's updated every
+   * {@link CoarseTicker#DEFAULT_RESOLUTION_MILLIS} milliseconds by shared maintenance scheduler
+   */
+  static Ticker coarse() {
+    return CoarseTicker.SHARED;
+  }
+}
@@ -0,0 +1,82 @@
+package com.sanik.maintenance;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduler, which is backed by {@link ScheduledExecutorService}. Timer threads can hand work over
+ * to separate executor, e.g. to one with virtual threads, so timer threads are never busy
+ */
+@Slf4j
+public class ExecutorMaintenanceScheduler implements MaintenanceScheduler {
+  static final ExecutorMaintenanceScheduler SHARED = new ExecutorMaintenanceScheduler(
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+  private final ScheduledExecutorService timer;
+  private final Executor worker;
+
+  /**
+   * Creates scheduler with own daemon threads
+   *
+   * @param threads - number of threads
+   */
+  public ExecutorMaintenanceScheduler(int threads) {
+    this(Executors.newScheduledThreadPool(threads, daemonFactory()), null);
+  }
+
+  /**
+   * Creates scheduler on top of existing executors
+   *
+   * @param timer  - executor to keep periodic tasks
+   * @param worker - executor to run tasks. If null, tasks are run on timer threads
+   */
+  public ExecutorMaintenanceScheduler(ScheduledExecutorService timer, Executor worker) {
+    this.timer = timer;
+    this.worker = worker;
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    if (worker != null) {
+      worker.execute(safe(task));
+    } else {
+      timer.execute(safe(task));
+    }
+  }
+
+  @Override
+  public Future<?> scheduleWithFixedDelay(Runnable task, long delay, TimeUnit unit) {
+    Runnable safeTask = safe(task);
+    Runnable scheduled = worker == null ? safeTask : () -> worker.execute(safeTask);
+    return timer.scheduleWithFixedDelay(scheduled, delay, delay, unit);
+  }
+
+  /**
+   * Wraps task, so its failure doesn't cancel next runs of periodic task
+   */
+  private static Runnable safe(Runnable task) {
+    return () -> {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        log.warn("Maintenance task failed", e);
+      }
+    };
+  }
+
+  private static ThreadFactory daemonFactory() {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable);
+      thread.setName("Maintenance-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,37 @@
+package com.sanik.maintenance;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs background work of caches and pools, so they don't need own threads. Tasks must be short
+ * and must not block, because they share threads with tasks of other instances
+ */
+public interface MaintenanceScheduler {
+
+  /**
+   * Method to run task once as soon as possible
+   *
+   * @param task - work to do
+   */
+  void execute(Runnable task);
+
+  /**
+   * Method to run task periodically, until it's cancelled
+   *
+   * @param task  - work to do
+   * @param delay - delay between end of one run and start of next one
+   * @param unit  - unit of delay
+   * @return handle to cancel task
+   */
+  Future<?> scheduleWithFixedDelay(Runnable task, long delay, TimeUnit unit);
+
+  /**
+   * Method to get scheduler, which is shared by all caches and pools, if other one isn't set
+   *
+   * @return shared scheduler with few daemon threads
+   */
+  static MaintenanceScheduler shared() {
+    return ExecutorMaintenanceScheduler.SHARED;
+  }
+}
@@ -1,13 +1,14 @@
 package com.sanik.objectpool;
 
+import com.sanik.maintenance.MaintenanceScheduler;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -20,9 +21,15 @@ public class ObjectPoolImpl<T> implements ObjectPool<T>{
   private int maxNumberOfObjects;
   private volatile boolean stop;
   private final SyncHolder<T> syncHolder = new SyncHolder<T>();
-  private volatile CountDownLatch objectCreatorLatch;
   private volatile int createdObjects = 0;
-  private ExecutorService service;
+  private final MaintenanceScheduler scheduler;
+  //Runs supplier. Scheduler by default, so slow supplier needs own executor
+  private volatile Executor creationExecutor;
+  private final Future<?> maintenance;
+  //Creation is requested, but maybe not done yet
+  private volatile boolean creationRequested;
+  private final AtomicBoolean creating = new AtomicBoolean();
+  private final AtomicBoolean verificationScheduled = new AtomicBoolean();
   private EvictionPolicy<T> verificationPolicy;
   private OnClosePolicy<T> onClosePolicy;
 
@@ -34,77 +41,95 @@ public class ObjectPoolImpl<T> implements ObjectPool<T>{
   }
 
   public ObjectPoolImpl(Supplier<T> supplier, int minNumberOfObjects, int maxNumberOfObjects) {
+    this(supplier, minNumberOfObjects, maxNumberOfObjects, MaintenanceScheduler.shared());
+  }
+
+  /**
+   * Creates pool, which creates and verifies objects by tasks of input scheduler
+   *
+   * @param scheduler - scheduler to run background work
+   */
+  public ObjectPoolImpl(Supplier<T> supplier, int minNumberOfObjects, int maxNumberOfObjects,
+      MaintenanceScheduler scheduler) {
     this.supplier = supplier;
     this.minNumberOfObjects = minNumberOfObjects;
     this.maxNumberOfObjects = maxNumberOfObjects;
+    this.scheduler = scheduler;
+    this.creationExecutor = scheduler::execute;
     syncHolder.readyObjects = new ArrayBlockingQueue<>(maxNumberOfObjects);
     syncHolder.objectsForVerifycation = new ArrayBlockingQueue<>(maxNumberOfObjects);
-    prepareLatch();
-    service = Executors.newFixedThreadPool(4);
-    service.submit(initObjectCreatorThread());
-    service.submit(createObjectVerificationThread());
-    service.submit(createObjectVerificationThread());
-    service.submit(createObjectVerificationThread());
-  }
-
-  private Runnable createObjectVerificationThread() {
-    return  () -> {
-      while (!stop) {
-        try {
-          T objectForVerification = syncHolder.objectsForVerifycation.take();
-          synchronized (syncHolder) {
-            try {
-              if (verifyObject(objectForVerification)) {
-                syncHolder.readyObjects.put(objectForVerification);
-              } else {
-                createdObjects--;
-              }
-            } catch (ObjectPoolException e) {
-              log.warn("Borrowed object cannot be verified ", e);
+    //periodic run keeps minimal number of objects, even if nobody asks for them
+    maintenance = scheduler.scheduleWithFixedDelay(() -> {
+      requestCreation();
+      verifyObjects();
+    }, 1, TimeUnit.SECONDS);
+    requestCreation();
+  }
+
+  /**
+   * Verifies all objects, which are waiting for verification. Valid objects become ready again
+   */
+  private void verifyObjects() {
+    do {
+      verificationScheduled.set(false);
+      boolean rejected = false;
+      T objectForVerification;
+      while (!stop && (objectForVerification = syncHolder.objectsForVerifycation.poll()) != null) {
+        synchronized (syncHolder) {
+          try {
+            if (verifyObject(objectForVerification)) {
+              syncHolder.readyObjects.add(objectForVerification);
+            } else {
+              createdObjects--;
+              rejected = true;
             }
+          } catch (ObjectPoolException e) {
+            log.warn("Borrowed object cannot be verified ", e);
           }
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          break;
         }
       }
-    };
+      //borrower could skip creation, while rejected object waited for verification
+      if (rejected) {
+        requestCreation();
+      }
+    } while (!stop && !syncHolder.objectsForVerifycation.isEmpty()
+        && verificationScheduled.compareAndSet(false, true));
   }
 
-  private void prepareLatch() {
-    objectCreatorLatch = new CountDownLatch(1);
+  private void requestCreation() {
+    creationRequested = true;
+    creationExecutor.execute(this::createObjects);
   }
 
-  private Runnable initObjectCreatorThread() {
-    return () -> {
-      while (!stop) {
-        boolean needToCreate;
-        synchronized (syncHolder) {
-          needToCreate = createdObjects < minNumberOfObjects || (syncHolder.readyObjects.size() == 0 && createdObjects < maxNumberOfObjects);
-        }
-        if(needToCreate) {
+  /**
+   * Creates objects, while pool has less than minimum or has no ready objects. Only one thread
+   * creates objects at a time, request, which comes during creation, is handled by that thread
+   */
+  private void createObjects() {
+    while (creationRequested && creating.compareAndSet(false, true)) {
+      try {
+        creationRequested = false;
+        while (!stop) {
+          boolean needToCreate;
+          synchronized (syncHolder) {
+            needToCreate = createdObjects < minNumberOfObjects || (syncHolder.readyObjects.size() == 0 && createdObjects < maxNumberOfObjects);
+          }
+          if (!needToCreate) {
+            break;
+          }
           T newObject = supplier.get();
-          createdObjects++;
-          if(newObject != null) {
-            synchronized (syncHolder) {
-              try {
-                syncHolder.readyObjects.put(newObject);
-              } catch (InterruptedException e) {
-                e.printStackTrace();
-              }
-            }
-          } else {
+          if (newObject == null) {
             throw new NullPointerException("Can't add new object to pool. Supplier returned null " + newObject);
           }
-        } else {
-          try {
-            objectCreatorLatch.await(1, TimeUnit.SECONDS);
-          } catch (InterruptedException e) {
-            break;
+          synchronized (syncHolder) {
+            createdObjects++;
+            syncHolder.readyObjects.add(newObject);
           }
         }
+      } finally {
+        creating.set(false);
       }
-    };
+    }
   }
 
   @Override
@@ -116,8 +141,7 @@ public class ObjectPoolImpl<T> implements ObjectPool<T>{
     }
     try {
       if(needtoCreate) {
-        objectCreatorLatch.countDown();
-        objectCreatorLatch = new CountDownLatch(1);
+        requestCreation();
       }
       returnedObject = syncHolder.readyObjects.take();
 
@@ -140,6 +164,9 @@ public class ObjectPoolImpl<T> implements ObjectPool<T>{
     }
     if(remove) {
       syncHolder.objectsForVerifycation.add(object);
+      if (verificationScheduled.compareAndSet(false, true)) {
+        scheduler.execute(this::verifyObjects);
+      }
     } else if(onClosePolicy != null) {
       onClosePolicy.onClose(object);
     } else throw new ObjectPoolException("Not from pool");
@@ -154,7 +181,7 @@ public class ObjectPoolImpl<T> implements ObjectPool<T>{
   public void close() throws IOException {
     if(stop) return;
     stop = true;
-    service.shutdownNow();
+    maintenance.cancel(false);
     synchronized (syncHolder) {
       syncHolder.objectsForVerifycation.addAll(syncHolder.borrowedObjects);
       syncHolder.borrowedObjects.clear();
@@ -189,6 +216,17 @@ public class ObjectPoolImpl<T> implements ObjectPool<T>{
     this.onClosePolicy = onClosePolicy;
   }
 
+  /**
+   * Sets executor, which runs supplier. By default supplier runs on maintenance scheduler, which
+   * allows only short non blocking tasks, so supplier, which opens connections or does other slow
+   * work, needs own executor
+   *
+   * @param creationExecutor - executor of object creation
+   */
+  public void setCreationExecutor(Executor creationExecutor) {
+    this.creationExecutor = creationExecutor;
+  }
+
   @Override
   public String toString() {
     return "ObjectPoolImpl{" +
@@ -0,0 +1,79 @@
+package com.sanik.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class AsyncMFUCacheTest {
+
+  @Test
+  public void concurrentRequestsShareFuture() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<String> pending = new CompletableFuture<>();
+    try (AsyncMFUCache<Integer, String> cache = new AsyncMFUCache<>(10, 1, 60_000)) {
+      AsyncLoader<Integer, String> loader = (key, executor) -> {
+        loads.incrementAndGet();
+        return pending;
+      };
+      CompletableFuture<String> first = cache.getAsync(13, loader);
+      CompletableFuture<String> second = cache.getAsync(13, loader);
+      assertSame(first, second);
+      assertFalse(first.isDone());
+
+      pending.complete("Kyiv");
+      assertEquals("Kyiv", second.get(1, TimeUnit.SECONDS));
+      assertEquals("Kyiv", cache.getAsync(13, loader).get());
+      assertEquals(1, loads.get());
+    }
+  }
+
+  @Test
+  public void failedLoadIsRemoved() throws Exception {
+    try (AsyncMFUCache<Integer, String> cache = new AsyncMFUCache<>(10, 1, 60_000)) {
+      CompletableFuture<String> failed = cache.getAsync(13, AsyncLoader.of(key -> {
+        throw new IllegalStateException("Backend is down");
+      }));
+      assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS));
+      assertNull(cache.getIfPresent(13));
+
+      CompletableFuture<String> loaded = cache.getAsync(13, AsyncLoader.of(key -> "Kyiv"));
+      assertEquals("Kyiv", loaded.get(1, TimeUnit.SECONDS));
+      assertSame(loaded, cache.getIfPresent(13));
+    }
+  }
+
+  @Test
+  public void alreadyFailedFutureIsRemoved() {
+    try (AsyncMFUCache<Integer, String> cache = new AsyncMFUCache<>(10, 1, 60_000)) {
+      cache.getAsync(13, (key, executor) -> CompletableFuture.failedFuture(new IllegalStateException()));
+      assertNull(cache.getIfPresent(13));
+      cache.put(94, CompletableFuture.completedFuture(null));
+      assertNull(cache.getIfPresent(94));
+      cache.put(71, "Banzai");
+      cache.put(71, (String) null);
+      assertNull(cache.getIfPresent(71));
+    }
+  }
+
+  @Test
+  public void throwingOrNullLoaderGivesFutureWithoutCaching() throws Exception {
+    try (AsyncMFUCache<Integer, String> cache = new AsyncMFUCache<>(10, 1, 60_000)) {
+      CompletableFuture<String> failed = cache.getAsync(13, (key, executor) -> {
+        throw new IllegalStateException("Backend is down");
+      });
+      ExecutionException error = assertThrows(ExecutionException.class, failed::get);
+      assertInstanceOf(IllegalStateException.class, error.getCause());
+      assertNull(cache.getIfPresent(13));
+
+      CompletableFuture<String> missing = cache.getAsync(94, (key, executor) -> null);
+      assertNull(missing.get());
+      assertNull(cache.getIfPresent(94));
+
+      assertEquals("Kyiv", cache.getAsync(13, AsyncLoader.of(key -> "Kyiv")).get(1, TimeUnit.SECONDS));
+    }
+  }
+}
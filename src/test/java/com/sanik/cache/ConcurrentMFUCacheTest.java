@@ -0,0 +1,133 @@
+package com.sanik.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.codec.StringCodec;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConcurrentMFUCacheTest {
+
+  @Test
+  public void usualUse() {
+    MFUCache<Integer, String> cache = new ConcurrentMFUCache<>(100, 1, 60_000, 8);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    cache.put(34, "Java");
+
+    assertEquals(8, cache.segmentCount());
+    assertEquals("Kyiv", cache.get(13));
+    assertEquals("Buda", cache.get(94));
+    assertEquals("Java", cache.get(34));
+    assertEquals(3, cache.values().size());
+    cache.close();
+  }
+
+  @Test
+  public void segmentsNeverExceedCapacity() {
+    MFUCache<Integer, String> cache = new ConcurrentMFUCache<>(3, 1, 60_000, 64);
+    assertEquals(2, cache.segmentCount());
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, String.valueOf(i));
+    }
+    assertEquals(3, cache.values().size());
+    cache.close();
+  }
+
+  @Test
+  public void checkVetoes() {
+    MFUCache<Integer, String> cache = new ConcurrentMFUCache<>(100, 1, 60_000, 4);
+    cache.setAddingVeto((key, value) -> key % 2 == 0);
+    cache.setUpdatingVeto((key, value) -> value.length() < 5);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    cache.put(94, "Wrong value");
+
+    assertNull(cache.get(13));
+    assertEquals("Buda", cache.get(94));
+    cache.close();
+  }
+
+  @Test
+  public void bulkOperations() {
+    MFUCache<Integer, String> cache = new ConcurrentMFUCache<>(100, 1, 60_000, 4);
+    cache.setAddingVeto((key, value) -> key != 71);
+    cache.setRemovingVeto((key, value) -> key != 34);
+    Map<Integer, String> entries = new LinkedHashMap<>();
+    entries.put(13, "Kyiv");
+    entries.put(94, "Buda");
+    entries.put(34, "Java");
+    entries.put(71, "Puma");
+    cache.putAll(entries);
+
+    Map<Integer, String> found = cache.getAll(Arrays.asList(71, 34, 13, 94, 11));
+    assertEquals(Arrays.asList(34, 13, 94), new ArrayList<>(found.keySet()));
+    assertEquals("Java", found.get(34));
+
+    Map<Integer, String> removed = cache.removeAll(Arrays.asList(13, 34, 11));
+    assertEquals(Collections.singletonMap(13, "Kyiv"), removed);
+    assertNull(cache.get(13));
+    assertEquals("Java", cache.get(34));
+    cache.close();
+  }
+
+  @Test
+  public void multiThreadPutAndGet() throws InterruptedException, ExecutionException {
+    int numberThreads = 10;
+    MFUCache<Integer, String> cache = new ConcurrentMFUCache<>(1_000, 1, 60_000, 16);
+    ExecutorService service = Executors.newFixedThreadPool(numberThreads);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      int key = i % 500;
+      futures.add(service.submit(() -> {
+        cache.put(key, String.valueOf(key));
+        assertEquals(String.valueOf(key), cache.get(key));
+      }));
+    }
+    service.shutdown();
+    assertTrue(service.awaitTermination(20, TimeUnit.SECONDS));
+    //failed assertion of task is thrown here
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    for (int i = 0; i < 500; i++) {
+      assertEquals(String.valueOf(i), cache.get(i));
+    }
+    assertEquals(500, cache.values().size());
+    cache.close();
+  }
+
+  @Test
+  public void smallerCacheRestoresHottestEntriesOfAllSegments(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("hot.snapshot");
+    ConcurrentMFUCache<String, String> cache =
+        new ConcurrentMFUCache<>(400, 1, 60_000, null, 4, Ordering.FREQUENCY);
+    for (int i = 0; i < 40; i++) {
+      cache.put("key" + i, "value" + i);
+      for (int j = 0; j < i; j++) {
+        cache.get("key" + i);
+      }
+    }
+    assertEquals(40, cache.saveSnapshot(file, new StringCodec(), new StringCodec()));
+    cache.close();
+
+    MFUCache<String, String> small = new MFUCache<>(4, 1, 60_000, Ordering.FREQUENCY);
+    assertEquals(4, small.loadSnapshot(file, new StringCodec(), new StringCodec()));
+    assertEquals(Arrays.asList("value39", "value38", "value37", "value36"), small.values());
+    small.close();
+  }
+}
@@ -0,0 +1,87 @@
+package com.sanik.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.MFUCache.Holder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FrequencyListTest {
+
+  @Test
+  public void promotionMovesToHigherBucket() {
+    FrequencyList<String> list = new FrequencyList<>();
+    Holder<Integer, String> kyiv = holder(1, "Kyiv");
+    Holder<Integer, String> buda = holder(2, "Buda");
+    Holder<Integer, String> java = holder(3, "Java");
+    list.moveNodeWithStep(1, kyiv);
+    list.moveNodeWithStep(1, buda);
+    list.moveNodeWithStep(1, java);
+    assertEquals(Arrays.asList("Java", "Buda", "Kyiv"), values(list));
+    assertEquals("Kyiv", list.getLastNode().getValue());
+
+    list.moveNodeWithStep(1, kyiv);
+    assertEquals(2, list.frequencyOf(kyiv));
+    assertEquals(Arrays.asList("Kyiv", "Java", "Buda"), values(list));
+
+    list.moveNodeWithStep(3, buda);
+    assertEquals(4, list.frequencyOf(buda));
+    assertEquals(Arrays.asList("Buda", "Kyiv", "Java"), values(list));
+    assertEquals(3, list.size());
+  }
+
+  @Test
+  public void removeLastAndUnlink() {
+    FrequencyList<String> list = new FrequencyList<>();
+    Holder<Integer, String> kyiv = holder(1, "Kyiv");
+    Holder<Integer, String> buda = holder(2, "Buda");
+    Holder<Integer, String> java = holder(3, "Java");
+    list.moveNodeWithStep(1, kyiv);
+    list.moveNodeWithStep(1, buda);
+    list.moveNodeWithStep(1, java);
+    list.moveNodeWithStep(1, java);
+
+    list.removeLast();
+    assertEquals(Arrays.asList("Java", "Buda"), values(list));
+    assertTrue(list.unlink(java));
+    assertFalse(list.unlink(java));
+    assertFalse(list.unlink(kyiv));
+    assertEquals(Arrays.asList("Buda"), values(list));
+    assertEquals(1, list.size());
+
+    list.moveNodeWithStep(1, kyiv);
+    list.moveNodeWithStep(1, kyiv);
+    assertEquals(Arrays.asList("Kyiv", "Buda"), values(list));
+    list.clear();
+    assertEquals(0, list.size());
+    assertNull(list.getLastNode());
+  }
+
+  @Test
+  public void cacheWithFrequencyOrdering() {
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 60_000, Ordering.FREQUENCY);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    cache.put(34, "Java");
+    cache.get(13);
+    cache.get(94);
+    cache.get(13);
+
+    assertEquals(Arrays.asList("Kyiv", "Buda", "Java"), cache.values());
+    cache.put(71, "Puma");
+    assertEquals(Arrays.asList("Kyiv", "Buda", "Puma"), cache.values());
+    cache.close();
+  }
+
+  private static Holder<Integer, String> holder(int key, String value) {
+    return new Holder<>(key, value);
+  }
+
+  private static List<String> values(FrequencyList<String> list) {
+    List<String> result = new ArrayList<>();
+    list.forEachNode(node -> result.add(node.getValue()));
+    return result;
+  }
+}
@@ -0,0 +1,167 @@
+package com.sanik.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.ticker.FakeTicker;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class LoadingMFUCacheTest {
+
+  @Test
+  public void loadsMissingValue() {
+    AtomicInteger loads = new AtomicInteger();
+    MFUCache<Integer, String> cache = new LoadingMFUCache<>(3, 1, 60_000, key -> {
+      loads.incrementAndGet();
+      return key < 50 ? "Value " + key : null;
+    });
+    assertEquals("Value 13", cache.get(13));
+    assertEquals("Value 13", cache.get(13));
+    assertNull(cache.get(94));
+    assertNull(cache.getIfPresent(94));
+    assertEquals(2, loads.get());
+
+    Map<Integer, String> values = cache.getAll(Arrays.asList(13, 34, 94));
+    assertEquals(Arrays.asList(13, 34), Arrays.asList(values.keySet().toArray()));
+    assertEquals(4, loads.get());
+    cache.close();
+  }
+
+  @Test
+  public void concurrentMissesWaitForOneLoad() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 60_000);
+    ExecutorService service = Executors.newFixedThreadPool(10);
+    Future<?>[] futures = new Future[10];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = service.submit(() -> assertEquals("Kyiv", cache.get(13, key -> {
+        loads.incrementAndGet();
+        await(release);
+        return "Kyiv";
+      })));
+    }
+    awaitWaiters(cache, 13, futures.length - 1);
+    release.countDown();
+    for (Future<?> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+    assertEquals(1, loads.get());
+    service.shutdown();
+    cache.close();
+  }
+
+  @Test
+  public void loadsOfDifferentKeysDontBlock() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    MFUCache<Integer, String> cache = new ConcurrentMFUCache<>(100, 1, 60_000, 1);
+    ExecutorService service = Executors.newSingleThreadExecutor();
+    Future<String> slow = service.submit(() -> cache.get(13, key -> {
+      await(release);
+      return "Kyiv";
+    }));
+    TimeUnit.MILLISECONDS.sleep(100);
+    assertEquals("Buda", cache.computeIfAbsent(94, key -> "Buda"));
+    cache.put(34, "Java");
+    assertEquals("Java", cache.get(34));
+    assertFalse(slow.isDone());
+
+    release.countDown();
+    assertEquals("Kyiv", slow.get(5, TimeUnit.SECONDS));
+    service.shutdown();
+    cache.close();
+  }
+
+  @Test
+  public void failedLoadIsPassedToWaiters() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 60_000);
+    ExecutorService service = Executors.newFixedThreadPool(10);
+    Future<?>[] futures = new Future[10];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = service.submit(() -> assertThrows(IllegalStateException.class,
+          () -> cache.get(13, key -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("Backend is down");
+          })));
+    }
+    awaitWaiters(cache, 13, futures.length - 1);
+    release.countDown();
+    for (Future<?> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+    assertEquals(1, loads.get());
+    assertNull(cache.getIfPresent(13));
+    assertEquals("Kyiv", cache.get(13, key -> "Kyiv"));
+    service.shutdown();
+    cache.close();
+  }
+
+  @Test
+  public void loadDoesntOverwriteValuePutMeanwhile() {
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 60_000);
+    assertEquals("Fresh", cache.get(13, key -> {
+      cache.put(13, "Fresh");
+      return "Stale";
+    }));
+    assertEquals("Fresh", cache.getIfPresent(13));
+    cache.close();
+  }
+
+  @Test
+  public void oldValueIsRefreshedInBackground() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    LoadingMFUCache<Integer, String> cache = new LoadingMFUCache<>(3, 1, 60_000, key -> {
+      if (loads.incrementAndGet() > 1) {
+        await(release);
+      }
+      return "Value " + loads.get();
+    });
+    FakeTicker ticker = new FakeTicker();
+    cache.setTicker(ticker);
+    cache.setRefreshAfterWrite(50, TimeUnit.MILLISECONDS);
+    assertEquals("Value 1", cache.get(13));
+    ticker.advance(100, TimeUnit.MILLISECONDS);
+
+    assertEquals("Value 1", cache.get(13));
+    assertEquals("Value 1", cache.get(13));
+    release.countDown();
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!"Value 2".equals(cache.getIfPresent(13)) && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertEquals("Value 2", cache.get(13));
+    assertEquals(2, loads.get());
+    cache.close();
+  }
+
+  /**
+   * Waits, until all threads but the loading one wait for the running load of key
+   */
+  private static void awaitWaiters(MFUCache<Integer, String> cache, int key, int waiters)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (cache.loadWaiters(key) < waiters) {
+      assertTrue(System.currentTimeMillis() < deadline, "Threads don't wait for the load");
+      Thread.sleep(1);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.sanik.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.ticker.FakeTicker;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LongMFUCacheTest {
+
+  @Test
+  public void sameOrderAsMFUCache() {
+    LongMFUCache<String> cache = new LongMFUCache<>(3, 1, 60_000);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    cache.put(34, "Java");
+
+    assertEquals(Arrays.asList("Buda", "Java", "Kyiv"), cache.values());
+    cache.put(71, "Puma");
+    assertEquals(Arrays.asList("Buda", "Java", "Puma"), cache.values());
+    cache.get(71);
+    assertEquals(Arrays.asList("Buda", "Puma", "Java"), cache.values());
+    assertNull(cache.get(13));
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void checkVetoes() {
+    IntMFUCache<String> cache = new IntMFUCache<>(3, 1, 60_000);
+    cache.setAddingVeto((key, value) -> key % 2 == 0);
+    cache.setUpdatingVeto((key, value) -> value.length() < 5);
+    cache.setRemovingVeto((key, value) -> key > 50);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    cache.put(34, "Java");
+    cache.put(34, "Wrong value");
+
+    assertNull(cache.get(13));
+    assertEquals("Java", cache.get(34));
+    assertNull(cache.remove(34));
+    assertEquals("Buda", cache.remove(94));
+    assertEquals(Arrays.asList("Java"), cache.values());
+  }
+
+  @Test
+  public void expiredValueIsNotReturned() {
+    FakeTicker ticker = new FakeTicker();
+    LongMFUCache<String> cache = new LongMFUCache<>(3, 1, 50);
+    cache.setTicker(ticker);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    ticker.advance(100, TimeUnit.MILLISECONDS);
+    assertNull(cache.get(13));
+    cache.cleanUp();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void expiresAtMaxLifeTimeLikeMFUCache() {
+    FakeTicker ticker = new FakeTicker();
+    LongMFUCache<String> cache = new LongMFUCache<>(3, 1, 50);
+    MFUCache<Long, String> reference = new MFUCache<>(3, 1, 50);
+    cache.setTicker(ticker);
+    reference.setTicker(ticker);
+    cache.put(13, "Kyiv");
+    reference.put(13L, "Kyiv");
+    ticker.advance(49, TimeUnit.MILLISECONDS);
+    assertEquals("Kyiv", cache.get(13));
+    assertEquals("Kyiv", reference.get(13L));
+    ticker.advance(1, TimeUnit.MILLISECONDS);
+    assertNull(cache.get(13));
+    assertNull(reference.get(13L));
+    reference.close();
+  }
+
+  @Test
+  public void behavesLikeMap() {
+    LongMFUCache<Long> cache = new LongMFUCache<>(1_000, 0, 60_000);
+    Map<Long, Long> expected = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      long key = random.nextInt(700) * 0x100000000L;
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), cache.remove(key));
+      } else {
+        cache.put(key, (long) i);
+        expected.put(key, (long) i);
+      }
+      assertEquals(expected.size(), cache.size());
+    }
+    for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), cache.get(entry.getKey()));
+    }
+  }
+}
@@ -2,12 +2,28 @@ package com.sanik.cache;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.sanik.cache.admission.TinyLfuAdmittor;
+import com.sanik.cache.codec.StringCodec;
+import com.sanik.cache.offheap.OffHeapStore;
+import com.sanik.cache.offheap.SlabAllocator;
+import com.sanik.cache.stats.CacheStats;
+import com.sanik.cache.ticker.FakeTicker;
 import com.sanik.cache.veto.AddingVeto;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class MFUCacheTest {
 
@@ -39,21 +55,239 @@ class MFUCacheTest {
     cache.close();
   }
 
+  @Test
+  public void bufferedReadsKeepStepOrder() {
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 60_000);
+    cache.setReadBuffering(true);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    cache.put(34, "Java");
+    cache.put(71, "Puma");
+    assertEquals(Arrays.asList("Buda", "Java", "Puma"), cache.values());
+
+    assertEquals("Puma", cache.get(71));
+    assertNull(cache.get(11));
+    cache.cleanUp();
+    assertEquals(Arrays.asList("Buda", "Puma", "Java"), cache.values());
+    cache.close();
+  }
+
+  @Test
+  public void multiThreadBufferedGet() throws InterruptedException, ExecutionException {
+    int numberThreads = 10;
+    MFUCache<Integer, String> cache = new MFUCache<>(numberThreads, 1, 60_000);
+    cache.setReadBuffering(true);
+    for(int i = 0; i < 7; i++) {
+      cache.put(i, String.valueOf(i));
+    }
+    ExecutorService service = Executors.newFixedThreadPool(numberThreads);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      for (int j = 0; j < numberThreads; j++) {
+        int finalJ = j;
+        futures.add(service.submit(() -> {
+          if(finalJ < 7) {
+            assertEquals(String.valueOf(finalJ), cache.get(finalJ));
+          } else  {
+            assertNull(cache.get((int) (Math.random() * 100 + 10)));
+          }
+        }));
+      }
+    }
+    service.shutdown();
+    assertTrue(service.awaitTermination(20, TimeUnit.SECONDS));
+    //failed assertion of task is thrown here
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    cache.cleanUp();
+
+    LinkedList<String> result = cache.getList();
+    assertEquals(7, result.size());
+    assertNull(result.get(0).getPrevious());
+    for(int i = 1; i < result.size(); i++) {
+      assertEquals(result.get(i), result.get(i-1).getNext());
+      assertEquals(result.get(i-1), result.get(i).getPrevious());
+    }
+    assertNull(result.get(result.size()-1).getNext());
+    cache.close();
+  }
+
   @Test
   public void checkMaxLifeTime() {
+    FakeTicker ticker = new FakeTicker();
     MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 30_000);
+    cache.setTicker(ticker);
     cache.put(13, "Kyiv");
     cache.put(94, "Buda");
     cache.put(34, "Java");
 
-    try {
-      TimeUnit.SECONDS.sleep(35);
-    }catch (InterruptedException ex) {
-      fail();
-    }
+    ticker.advance(29, TimeUnit.SECONDS);
+    assertEquals("Kyiv", cache.get(13));
+    ticker.advance(6, TimeUnit.SECONDS);
     assertNull(cache.get(13));
     assertNull(cache.get(94));
     assertNull(cache.get(34));
+    cache.cleanUp();
+    assertEquals(0, cache.size());
+    cache.close();
+  }
+
+  @Test
+  public void expiresWithTickAccuracy() {
+    FakeTicker ticker = new FakeTicker();
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 200);
+    cache.setTicker(ticker);
+    cache.setExpirationTick(20, TimeUnit.MILLISECONDS);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    assertEquals("Kyiv", cache.get(13));
+
+    ticker.advance(199, TimeUnit.MILLISECONDS);
+    cache.cleanUp();
+    assertEquals(2, cache.size());
+    ticker.advance(21, TimeUnit.MILLISECONDS);
+    cache.cleanUp();
+    assertEquals(0, cache.size());
+    assertNull(cache.get(13));
+    assertNull(cache.get(94));
+    cache.put(13, "Java");
+    assertEquals("Java", cache.get(13));
+    cache.close();
+  }
+
+  @Test
+  public void expiryGivesEveryEntryOwnLifeTime() {
+    FakeTicker ticker = new FakeTicker();
+    MFUCache<String, String> cache = new MFUCache<>(10, 1, 60_000);
+    cache.setTicker(ticker);
+    cache.setExpiry(new Expiry<>() {
+      @Override
+      public long expireAfterCreate(String key, String value, long currentTime) {
+        return key.startsWith("session") ? 100 : Long.MAX_VALUE;
+      }
+
+      @Override
+      public long expireAfterRead(String key, String value, long currentTime,
+          long currentDuration) {
+        return key.equals("session-sliding") ? 100 : currentDuration;
+      }
+    });
+    cache.put("session", "token");
+    cache.put("session-sliding", "token");
+    cache.put("config", "value");
+
+    for (int i = 0; i < 4; i++) {
+      ticker.advance(50, TimeUnit.MILLISECONDS);
+      assertEquals("token", cache.get("session-sliding"));
+    }
+    assertNull(cache.get("session"));
+    assertEquals("value", cache.get("config"));
+    assertEquals(2, cache.size());
+
+    cache.setReadBuffering(true);
+    cache.put("session", "token");
+    assertEquals("token", cache.get("session"));
+    ticker.advance(150, TimeUnit.MILLISECONDS);
+    //maintenance hasn't run yet, so only check on read hides expired entries
+    assertNull(cache.get("session"));
+    assertNull(cache.get("session-sliding"));
+    assertEquals("value", cache.get("config"));
+    cache.close();
+  }
+
+  @Test
+  public void bufferedReadsSlideExpiration() {
+    FakeTicker ticker = new FakeTicker();
+    MFUCache<String, String> cache = new MFUCache<>(10, 1, 60_000);
+    cache.setTicker(ticker);
+    cache.setExpirationTick(10, TimeUnit.MILLISECONDS);
+    cache.setReadBuffering(true);
+    cache.setExpiry(new Expiry<>() {
+      @Override
+      public long expireAfterCreate(String key, String value, long currentTime) {
+        return 100;
+      }
+
+      @Override
+      public long expireAfterRead(String key, String value, long currentTime,
+          long currentDuration) {
+        return 100;
+      }
+    });
+    cache.put("session", "token");
+    for (int i = 0; i < 10; i++) {
+      ticker.advance(50, TimeUnit.MILLISECONDS);
+      assertEquals("token", cache.get("session"));
+    }
+    cache.cleanUp();
+    assertEquals(1, cache.size());
+    ticker.advance(100, TimeUnit.MILLISECONDS);
+    cache.cleanUp();
+    assertEquals(0, cache.size());
+    cache.close();
+  }
+
+  @Test
+  public void boundedByWeight() {
+    MFUCache<Integer, String> cache = new MFUCache<>(10, 1, 60_000);
+    cache.setWeigher((key, value) -> value.length(), 10);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    assertEquals(8, cache.weightedSize());
+
+    cache.put(34, "Java");
+    assertEquals(Arrays.asList("Buda", "Java"), cache.values());
+    assertEquals(8, cache.weightedSize());
+
+    cache.put(94, "B");
+    assertEquals(5, cache.weightedSize());
+    cache.put(71, "Bananas and more");
+    assertEquals(Arrays.asList("B"), cache.values());
+    assertEquals(1, cache.weightedSize());
+    cache.close();
+  }
+
+  @Test
+  public void offHeapValues() {
+    SlabAllocator allocator = new SlabAllocator(1024, 4096);
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 60_000);
+    cache.setOffHeapStore(new OffHeapStore<>(new StringCodec(), allocator));
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    cache.put(34, "Java");
+    assertEquals(96, allocator.usedBytes());
+
+    assertEquals("Kyiv", cache.get(13));
+    cache.put(13, "Kyiv is the capital");
+    assertEquals("Kyiv is the capital", cache.get(13));
+    assertEquals(Arrays.asList("Kyiv is the capital", "Buda", "Java"), cache.values());
+    assertEquals("Buda", cache.remove(94));
+    assertNull(cache.get(94));
+    assertEquals(64, allocator.usedBytes());
+    cache.close();
+    assertEquals(0, allocator.usedBytes());
+  }
+
+  @Test
+  public void oversizedOffHeapValueIsNotCached() {
+    SlabAllocator allocator = new SlabAllocator(1024, 4096);
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 60_000);
+    cache.setOffHeapStore(new OffHeapStore<>(new StringCodec(), allocator));
+    String oversized = "x".repeat(5_000);
+    assertThrows(RuntimeException.class, () -> cache.put(13, oversized));
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.weightedSize());
+    assertNull(cache.get(13));
+    assertTrue(cache.values().isEmpty());
+
+    cache.put(94, "Buda");
+    assertThrows(RuntimeException.class, () -> cache.put(94, oversized));
+    assertEquals("Buda", cache.get(94));
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.weightedSize());
+    cache.close();
+    assertEquals(0, allocator.usedBytes());
   }
 
   @Test
@@ -82,7 +316,7 @@ class MFUCacheTest {
 
   @Test
   public void checkRemovingVeto() {
-    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 30_000);
+    MFUCache<Integer, String> cache = new MFUCache<>(5, 1, 30_000);
     cache.put(13, "Kyiv");
     cache.put(94, "Buda");
     cache.put(34, "Java");
@@ -131,9 +365,17 @@ class MFUCacheTest {
     service.shutdown();
     service.awaitTermination(20, TimeUnit.SECONDS);
 
+    //evicted keys leave the cache, only values of 3 keys stay
+    int present = 0;
     for (int j = 0; j < numberThreads; j++) {
-       assertEquals(String.valueOf(j), cache.get(j));
+      String value = cache.get(j);
+      if (value != null) {
+        assertEquals(String.valueOf(j), value);
+        present++;
+      }
     }
+    assertEquals(3, present);
+    assertEquals(3, cache.size());
     LinkedList<String> result = cache.getList();
     assertEquals(3, result.size());
 
@@ -184,4 +426,186 @@ class MFUCacheTest {
     assertNull(result.get(result.size()-1).getNext());
     cache.close();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void recordsStats() throws Exception {
+    MFUCache<Integer, String> cache = new MFUCache<>(2, 1, 60_000);
+    assertEquals(0, cache.stats().requestCount());
+    cache.recordStats();
+    cache.setAddingVeto((key, value) -> key != 0);
+    cache.put(13, "Kyiv");
+    cache.put(94, "Buda");
+    cache.put(34, "Java");
+    cache.put(0, "Zero");
+    cache.get(34);
+    cache.get(99);
+    assertEquals("Lviv", cache.get(7, key -> "Lviv"));
+    assertEquals("Lviv", cache.remove(7));
+
+    CacheStats stats = cache.stats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(2, stats.getMissCount());
+    assertEquals(4, stats.getPutCount());
+    assertEquals(2, stats.getSizeEvictionCount());
+    assertEquals(1, stats.getExplicitRemovalCount());
+    assertEquals(1, stats.getVetoRejectionCount());
+    assertEquals(1, stats.getLoadSuccessCount());
+    assertEquals(1, stats.getLoadTime().getCount());
+    assertTrue(stats.getLockWait().getCount() >= 8);
+
+    ObjectName name = new ObjectName("com.sanik.cache:type=MFUCache,name=\"stats\"");
+    cache.registerMBean("stats");
+    assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "HitCount"));
+
+    cache.put(13, "Kyiv");
+    cache.getAll(Arrays.asList(13, 13, 99, 99));
+    assertEquals(2, cache.stats().getHitCount());
+    assertEquals(3, cache.stats().getMissCount());
+
+    assertEquals(2, cache.size());
+    cache.clear();
+    assertEquals(3, cache.stats().getExplicitRemovalCount());
+    cache.close();
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
+
+  @Test
+  public void admissionKeepsFrequentKeysUnderScan() {
+    MFUCache<Integer, String> cache = new MFUCache<>(100, 1, 60_000);
+    cache.setAdmittor(TinyLfuAdmittor::new);
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        if (cache.get(i) == null) {
+          cache.put(i, String.valueOf(i));
+        }
+      }
+    }
+    for (int i = 1_000; i < 1_600; i++) {
+      cache.put(i, String.valueOf(i));
+    }
+
+    for (int i = 0; i < 50; i++) {
+      assertEquals(String.valueOf(i), cache.get(i));
+    }
+    assertEquals(100, cache.values().size());
+    assertEquals(100, cache.weightedSize());
+    assertThrows(IllegalStateException.class, () -> cache.setAdmittor(null));
+    cache.close();
+  }
+
+  @Test
+  public void bufferedMissesAreRecordedByAdmittor() {
+    MFUCache<Integer, String> cache = new MFUCache<>(4, 1, 60_000);
+    cache.setAdmittor(TinyLfuAdmittor::new, 25);
+    cache.setReadBuffering(true);
+    for (int i = 1; i <= 4; i++) {
+      cache.put(i, String.valueOf(i));
+    }
+    for (int i = 0; i < 5; i++) {
+      assertNull(cache.get(99));
+    }
+    cache.put(99, "99");
+    //99 leaves window and wins against victim only by its misses
+    cache.put(5, "5");
+    cache.cleanUp();
+    assertEquals("99", cache.get(99));
+    cache.close();
+  }
+
+  @Test
+  public void evictedAndRemovedKeysLeaveCache() {
+    MFUCache<Integer, String> cache = new MFUCache<>(3, 1, 60_000);
+    for (int i = 0; i < 10_000; i++) {
+      cache.put(i, String.valueOf(i));
+    }
+    assertEquals(3, cache.size());
+    assertEquals(3, cache.estimatedSize());
+    assertEquals(3, cache.getList().size());
+
+    cache.put(13, "Kyiv");
+    assertEquals("Kyiv", cache.remove(13));
+    assertNull(cache.get(13));
+    assertEquals(2, cache.size());
+    assertEquals(2, cache.weightedSize());
+    assertEquals(2, cache.getList().size());
+    cache.close();
+  }
+
+  @Test
+  public void removalListenerGetsCauses() throws InterruptedException {
+    FakeTicker ticker = new FakeTicker();
+    MFUCache<Integer, String> cache = new MFUCache<>(2, 1, 50);
+    cache.setTicker(ticker);
+    cache.setExpirationTick(10, TimeUnit.MILLISECONDS);
+    List<String> removals = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService listenerThread = Executors.newSingleThreadExecutor();
+    cache.setRemovalListener((key, value, cause) -> removals.add(key + "=" + value + " " + cause),
+        listenerThread);
+
+    cache.put(13, "Kyiv");
+    cache.put(13, "Lviv");
+    assertEquals("Lviv", cache.remove(13));
+    cache.put(94, "Buda");
+    cache.put(34, "Java");
+    cache.put(71, "Banzai");
+    ticker.advance(200, TimeUnit.MILLISECONDS);
+    cache.cleanUp();
+
+    listenerThread.shutdown();
+    assertTrue(listenerThread.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("13=Kyiv REPLACED", "13=Lviv EXPLICIT"), removals.subList(0, 2));
+    assertEquals(1, removals.stream().filter(removal -> removal.endsWith(" SIZE")).count());
+    assertEquals(2, removals.stream().filter(removal -> removal.endsWith(" EXPIRED")).count());
+    assertEquals(5, removals.size());
+    cache.close();
+  }
+
+  @Test
+  public void snapshotKeepsUsageOrder(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("cities.snapshot");
+    MFUCache<String, String> cache = new MFUCache<>(3, 1, 60_000);
+    cache.put("13", "Kyiv");
+    cache.put("94", "Buda");
+    cache.put("34", "Java");
+    cache.get("34");
+    cache.get("34");
+    assertEquals(3, cache.saveSnapshot(file, new StringCodec(), new StringCodec()));
+    List<String> saved = cache.values();
+    cache.close();
+
+    MFUCache<String, String> restored = new MFUCache<>(3, 1, 60_000);
+    assertEquals(3, restored.loadSnapshot(file, new StringCodec(), new StringCodec()));
+    assertEquals(saved, restored.values());
+    assertEquals(3, restored.weightedSize());
+    restored.close();
+
+    MFUCache<String, String> frequent = new MFUCache<>(3, 1, 60_000, Ordering.FREQUENCY);
+    frequent.put("13", "Kyiv");
+    frequent.put("94", "Buda");
+    frequent.get("94");
+    frequent.saveSnapshot(file, new StringCodec(), new StringCodec());
+    MFUCache<String, String> small = new MFUCache<>(1, 1, 60_000, Ordering.FREQUENCY);
+    assertEquals(1, small.loadSnapshot(file, new StringCodec(), new StringCodec()));
+    assertEquals("Buda", small.get("94"));
+    frequent.close();
+    small.close();
+  }
+
+  @Test
+  public void snapshotWritesWindowBeforeColdEntries(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("cities.snapshot");
+    MFUCache<String, String> cache = new MFUCache<>(10, 1, 60_000);
+    cache.setAdmittor(TinyLfuAdmittor::new, 20);
+    for (int i = 0; i < 10; i++) {
+      cache.put(String.valueOf(i), "value" + i);
+    }
+    assertEquals(10, cache.saveSnapshot(file, new StringCodec(), new StringCodec()));
+    cache.close();
+
+    MFUCache<String, String> small = new MFUCache<>(2, 1, 60_000);
+    assertEquals(2, small.loadSnapshot(file, new StringCodec(), new StringCodec()));
+    assertEquals("value9", small.get("9"));
+    assertEquals("value8", small.get("8"));
+    small.close();
+  }
+}
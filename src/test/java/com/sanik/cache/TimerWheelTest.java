@@ -0,0 +1,77 @@
+package com.sanik.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.MFUCache.Holder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+  @Test
+  public void expiresOnlyDueHolders() {
+    TimerWheel<Integer, String> wheel = new TimerWheel<>(10, 0);
+    Holder<Integer, String> soon = holder(1, 25);
+    Holder<Integer, String> later = holder(2, 1_000);
+    Holder<Integer, String> muchLater = holder(3, 100_000);
+    wheel.schedule(soon);
+    wheel.schedule(later);
+    wheel.schedule(muchLater);
+
+    List<Integer> expired = new ArrayList<>();
+    wheel.advance(20, holder -> expired.add(holder.getKey()));
+    assertTrue(expired.isEmpty());
+    wheel.advance(30, holder -> expired.add(holder.getKey()));
+    assertEquals(Arrays.asList(1), expired);
+    wheel.advance(999, holder -> expired.add(holder.getKey()));
+    assertEquals(Arrays.asList(1), expired);
+    wheel.advance(1_010, holder -> expired.add(holder.getKey()));
+    assertEquals(Arrays.asList(1, 2), expired);
+    wheel.advance(100_000, holder -> expired.add(holder.getKey()));
+    assertEquals(Arrays.asList(1, 2, 3), expired);
+  }
+
+  @Test
+  public void cascadesThroughLevels() {
+    TimerWheel<Integer, String> wheel = new TimerWheel<>(1, 0);
+    List<Integer> expired = new ArrayList<>();
+    for (int i = 1; i <= 10; i++) {
+      wheel.schedule(holder(i, i * 5_000L));
+    }
+    for (long now = 0; now <= 60_000; now += 777) {
+      long time = now;
+      wheel.advance(now, holder -> {
+        assertTrue(holder.getExpirationTime() <= time);
+        assertTrue(holder.getExpirationTime() > time - 777);
+        expired.add(holder.getKey());
+      });
+    }
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), expired);
+  }
+
+  @Test
+  public void unscheduledHolderNeverExpires() {
+    TimerWheel<Integer, String> wheel = new TimerWheel<>(10, 0);
+    Holder<Integer, String> holder = holder(1, 50);
+    wheel.schedule(holder);
+    wheel.unschedule(holder);
+    Holder<Integer, String> rescheduled = holder(2, 50);
+    wheel.schedule(rescheduled);
+    rescheduled.setExpirationTime(500);
+    wheel.schedule(rescheduled);
+
+    List<Integer> expired = new ArrayList<>();
+    wheel.advance(100, h -> expired.add(h.getKey()));
+    assertTrue(expired.isEmpty());
+    wheel.advance(Long.MAX_VALUE / 2, h -> expired.add(h.getKey()));
+    assertEquals(Arrays.asList(2), expired);
+  }
+
+  private static Holder<Integer, String> holder(int key, long expirationTime) {
+    Holder<Integer, String> holder = new Holder<>(key, String.valueOf(key));
+    holder.setExpirationTime(expirationTime);
+    return holder;
+  }
+}
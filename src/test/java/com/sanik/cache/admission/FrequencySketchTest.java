@@ -0,0 +1,36 @@
+package com.sanik.cache.admission;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class FrequencySketchTest {
+
+  @Test
+  public void countsAndSaturates() {
+    FrequencySketch<Integer> sketch = new FrequencySketch<>(512);
+    assertEquals(0, sketch.frequency(13));
+    for (int i = 0; i < 5; i++) {
+      sketch.increment(13);
+    }
+    assertEquals(5, sketch.frequency(13));
+    for (int i = 0; i < 100; i++) {
+      sketch.increment(94);
+    }
+    assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency(94));
+  }
+
+  @Test
+  public void agingHalvesCounters() {
+    FrequencySketch<Integer> sketch = new FrequencySketch<>(16);
+    for (int i = 0; i < 8; i++) {
+      sketch.increment(13);
+    }
+    //160 increments of other keys reach sample size and halve all counters
+    for (int i = 0; i < 160; i++) {
+      sketch.increment(1_000 + i);
+    }
+    assertTrue(sketch.frequency(13) <= 4);
+    assertTrue(sketch.frequency(13) >= 2);
+  }
+}
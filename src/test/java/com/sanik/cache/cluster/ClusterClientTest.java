@@ -0,0 +1,100 @@
+package com.sanik.cache.cluster;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.MFUCache;
+import com.sanik.cache.codec.StringCodec;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClusterClientTest {
+  private final List<CacheNodeServer> nodes = new ArrayList<>();
+  private ClusterClient<String, String> client;
+
+  @BeforeEach
+  public void startNodes() throws Exception {
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      CacheNodeServer node = new CacheNodeServer(
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), new MFUCache<>(100, 1, 60_000));
+      nodes.add(node);
+      addresses.add(node.getAddress());
+    }
+    client = new ClusterClient<>(addresses, new StringCodec(), new StringCodec());
+  }
+
+  @AfterEach
+  public void stopNodes() throws Exception {
+    client.close();
+    for (CacheNodeServer node : nodes) {
+      node.close();
+    }
+  }
+
+  @Test
+  public void keysAreSpreadOverNodes() {
+    for (int i = 0; i < 90; i++) {
+      client.put("key-" + i, "value-" + i);
+    }
+    assertEquals("value-13", client.get("key-13"));
+    assertNull(client.get("missing"));
+
+    int total = 0;
+    for (CacheNodeServer node : nodes) {
+      int size = node.getCache().size();
+      assertTrue(size > 0);
+      total += size;
+    }
+    assertEquals(90, total);
+
+    assertTrue(client.remove("key-13"));
+    assertFalse(client.remove("key-13"));
+    assertNull(client.get("key-13"));
+  }
+
+  @Test
+  public void pipelinedRequestsAndBatchedGet() {
+    List<CompletableFuture<Void>> puts = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      puts.add(client.putAsync("key-" + i, "value-" + i));
+    }
+    CompletableFuture.allOf(puts.toArray(new CompletableFuture[0])).join();
+
+    List<CompletableFuture<String>> gets = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      gets.add(client.getAsync("key-" + i));
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals("value-" + i, gets.get(i).join());
+    }
+
+    List<String> keys = List.of("key-1", "missing", "key-150", "key-77");
+    Map<String, String> values = client.getAll(keys);
+    assertEquals(List.of("key-1", "key-150", "key-77"), new ArrayList<>(values.keySet()));
+    assertEquals("value-150", values.get("key-150"));
+
+    Set<InetSocketAddress> owners = new HashSet<>();
+    for (int i = 0; i < 200; i++) {
+      owners.add(client.nodeFor("key-" + i));
+    }
+    assertEquals(3, owners.size());
+  }
+
+  @Test
+  public void brokenCountIsRejected() {
+    RequestHandler handler = new RequestHandler(new MFUCache<>(100, 1, 60_000));
+    ByteBuffer request = ByteBuffer.allocate(5).put(Protocol.MGET).putInt(Integer.MAX_VALUE).flip();
+    ByteBuffer response = handler.handle(request);
+    assertEquals(Protocol.ERROR, response.get(4));
+  }
+}
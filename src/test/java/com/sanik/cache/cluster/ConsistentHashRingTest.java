@@ -0,0 +1,57 @@
+package com.sanik.cache.cluster;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+  @Test
+  public void keysAreSpreadEvenly() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>();
+    ring.add("node-1");
+    ring.add("node-2");
+    ring.add("node-3");
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 30_000; i++) {
+      counts.merge(ring.nodeFor(key(i)), 1, Integer::sum);
+    }
+    assertEquals(3, counts.size());
+    counts.values().forEach(count -> assertTrue(count > 7_000 && count < 13_000, counts::toString));
+  }
+
+  @Test
+  public void addingNodeMovesOnlyItsKeys() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>();
+    ring.add("node-1");
+    ring.add("node-2");
+    ring.add("node-3");
+    String[] before = new String[10_000];
+    for (int i = 0; i < before.length; i++) {
+      before[i] = ring.nodeFor(key(i));
+    }
+
+    ring.add("node-4");
+    int moved = 0;
+    for (int i = 0; i < before.length; i++) {
+      String node = ring.nodeFor(key(i));
+      if (!node.equals(before[i])) {
+        assertEquals("node-4", node);
+        moved++;
+      }
+    }
+    assertTrue(moved > 1_500 && moved < 3_500, "Moved " + moved);
+
+    ring.remove("node-4");
+    for (int i = 0; i < before.length; i++) {
+      assertEquals(before[i], ring.nodeFor(key(i)));
+    }
+  }
+
+  private static byte[] key(int i) {
+    return ("key-" + i).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,89 @@
+package com.sanik.cache.near;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.codec.StringCodec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InvalidationDatagramsTest {
+  private final InvalidationDatagrams<String> sender =
+      new InvalidationDatagrams<>(new StringCodec(), 1);
+  private final InvalidationDatagrams<String> receiver =
+      new InvalidationDatagrams<>(new StringCodec(), 2);
+
+  @Test
+  public void decodesEncodedKeys() {
+    List<String> keys = Arrays.asList("Kyiv", "", "Lviv");
+    List<byte[]> datagrams = sender.encode(keys);
+    assertEquals(1, datagrams.size());
+    assertEquals(keys, decode(datagrams.get(0)));
+    assertTrue(sender.encode(Collections.emptyList()).isEmpty());
+  }
+
+  @Test
+  public void splitsKeysAtMaxDatagram() {
+    //key of 96 bytes takes 100 bytes of datagram, so 13 keys fit after header
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      keys.add(String.format("%096d", i));
+    }
+    List<byte[]> datagrams = sender.encode(keys);
+    assertEquals(3, datagrams.size());
+    List<String> decoded = new ArrayList<>();
+    for (byte[] datagram : datagrams) {
+      assertTrue(datagram.length <= InvalidationDatagrams.MAX_DATAGRAM);
+      decoded.addAll(decode(datagram));
+    }
+    assertEquals(keys, decoded);
+    assertEquals(InvalidationDatagrams.HEADER_SIZE + 13 * 100, datagrams.get(0).length);
+
+    //key, which doesn't fit into usual datagram, gets datagram of its own
+    String large = "a".repeat(InvalidationDatagrams.MAX_DATAGRAM);
+    datagrams = sender.encode(Arrays.asList("Kyiv", large, "Lviv"));
+    assertEquals(3, datagrams.size());
+    assertEquals(Collections.singletonList(large), decode(datagrams.get(1)));
+  }
+
+  @Test
+  public void skipsKeyLongerThanDatagram() {
+    String tooLong = "a".repeat(InvalidationDatagrams.MAX_KEY_LENGTH + 1);
+    String longest = "a".repeat(InvalidationDatagrams.MAX_KEY_LENGTH);
+    List<byte[]> datagrams = sender.encode(Arrays.asList("Kyiv", tooLong, longest));
+    assertEquals(2, datagrams.size());
+    assertEquals(Collections.singletonList("Kyiv"), decode(datagrams.get(0)));
+    assertEquals(InvalidationDatagrams.MAX_PAYLOAD, datagrams.get(1).length);
+    assertEquals(Collections.singletonList(longest), decode(datagrams.get(1)));
+  }
+
+  @Test
+  public void ignoresOwnAndForeignDatagrams() {
+    byte[] datagram = sender.encode(Collections.singletonList("Kyiv")).get(0);
+    assertNull(sender.decode(ByteBuffer.wrap(datagram)));
+
+    byte[] foreign = datagram.clone();
+    foreign[0]++;
+    assertNull(decode(foreign));
+    assertNull(decode(new byte[InvalidationDatagrams.HEADER_SIZE - 1]));
+  }
+
+  @Test
+  public void rejectsBrokenDatagrams() {
+    byte[] datagram = sender.encode(Collections.singletonList("Kyiv")).get(0);
+    byte[] brokenCount = datagram.clone();
+    ByteBuffer.wrap(brokenCount).putInt(12, Integer.MAX_VALUE);
+    assertThrows(IllegalArgumentException.class, () -> decode(brokenCount));
+
+    byte[] brokenLength = datagram.clone();
+    ByteBuffer.wrap(brokenLength).putInt(InvalidationDatagrams.HEADER_SIZE, 5);
+    assertThrows(IllegalArgumentException.class, () -> decode(brokenLength));
+  }
+
+  private List<String> decode(byte[] datagram) {
+    return receiver.decode(ByteBuffer.wrap(datagram));
+  }
+}
@@ -0,0 +1,67 @@
+package com.sanik.cache.near;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.MFUCache;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+class NearCacheTest {
+
+  @Test
+  public void putInvalidatesOtherNodes() throws Exception {
+    LoopbackBus<Integer> bus = new LoopbackBus<>();
+    try (NearCache<Integer, String> first = nearCache(bus);
+        NearCache<Integer, String> second = nearCache(bus)) {
+      first.put(1, "Kyiv");
+      second.put(2, "Lviv");
+      //keys, which other node doesn't have, change nothing
+      Thread.sleep(50);
+      assertEquals("Kyiv", first.getIfPresent(1));
+      assertEquals("Lviv", second.getIfPresent(2));
+
+      second.put(1, "Kyiv");
+      waitUntil(() -> first.getIfPresent(1) == null);
+
+      first.put(2, "Odesa");
+      waitUntil(() -> second.getIfPresent(2) == null);
+      assertEquals("Odesa", first.getIfPresent(2));
+      assertEquals("Kyiv", second.getIfPresent(1));
+
+      //invalidation from other node isn't published back
+      Thread.sleep(50);
+      assertEquals("Odesa", first.getIfPresent(2));
+    }
+  }
+
+  @Test
+  public void loadIsNotPublished() throws Exception {
+    LoopbackBus<Integer> bus = new LoopbackBus<>();
+    try (NearCache<Integer, String> first = nearCache(bus);
+        NearCache<Integer, String> second = nearCache(bus)) {
+      assertEquals("Kyiv", first.get(1, key -> "Kyiv"));
+      assertEquals("Kyiv", second.get(1, key -> "Kyiv"));
+      Thread.sleep(50);
+      assertEquals("Kyiv", first.getIfPresent(1));
+
+      second.invalidate(1);
+      waitUntil(() -> first.getIfPresent(1) == null);
+      assertNull(second.getIfPresent(1));
+    }
+  }
+
+  private static NearCache<Integer, String> nearCache(LoopbackBus<Integer> bus) {
+    return new NearCache<>(new MFUCache<>(10, 1, 60_000), bus.connect(), 5, TimeUnit.MILLISECONDS,
+        NearCache.DEFAULT_MAX_BATCH);
+  }
+
+  private static void waitUntil(BooleanSupplier condition)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 1_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Condition isn't met in time");
+      Thread.sleep(5);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.sanik.cache.offheap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class SlabAllocatorTest {
+
+  @Test
+  public void writeAndRead() {
+    SlabAllocator allocator = new SlabAllocator(1024, 1024);
+    long kyiv = allocator.write(bytes("Kyiv"));
+    long buda = allocator.write(bytes("Buda is a bit longer, than 32 bytes"));
+
+    assertEquals("Kyiv", string(allocator.read(kyiv)));
+    assertEquals("Buda is a bit longer, than 32 bytes", string(allocator.read(buda)));
+    assertEquals(32 + 64, allocator.usedBytes());
+    assertEquals(1024, allocator.reservedBytes());
+  }
+
+  @Test
+  public void freedChunkIsReused() {
+    SlabAllocator allocator = new SlabAllocator(1024, 1024);
+    long kyiv = allocator.write(bytes("Kyiv"));
+    allocator.free(kyiv);
+    assertEquals(0, allocator.usedBytes());
+
+    long java = allocator.write(bytes("Java"));
+    assertEquals(kyiv, java);
+    assertEquals("Java", string(allocator.read(java)));
+  }
+
+  @Test
+  public void limitsAreChecked() {
+    SlabAllocator allocator = new SlabAllocator(64, 128);
+    assertThrows(IllegalArgumentException.class, () -> allocator.write(new byte[61]));
+    allocator.write(new byte[60]);
+    allocator.write(new byte[60]);
+    assertThrows(IllegalStateException.class, () -> allocator.write(new byte[60]));
+    assertEquals(128, allocator.usedBytes());
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(ByteBuffer buffer) {
+    return StandardCharsets.UTF_8.decode(buffer).toString();
+  }
+}
@@ -0,0 +1,64 @@
+package com.sanik.cache.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.codec.StringCodec;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotReaderTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void writeAndRead() throws IOException {
+    Path file = directory.resolve("cache.snapshot");
+    try (SnapshotWriter<String, String> writer = new SnapshotWriter<>(file, new StringCodec(), new StringCodec())) {
+      writer.write(new SnapshotEntry<>("13", "Kyiv", 3, 100));
+      writer.write(new SnapshotEntry<>("94", "", 1, 200));
+      assertEquals(2, writer.commit());
+    }
+    assertFalse(Files.exists(directory.resolve("cache.snapshot.tmp")));
+
+    List<String> entries = new ArrayList<>();
+    try (SnapshotReader<String, String> reader = new SnapshotReader<>(file, new StringCodec(), new StringCodec())) {
+      assertEquals(2, reader.forEach(entry -> entries.add(entry.getKey() + "=" + entry.getValue()
+          + " " + entry.getRank() + " " + entry.getWriteTime())));
+    }
+    assertEquals(Arrays.asList("13=Kyiv 3 100", "94= 1 200"), entries);
+  }
+
+  @Test
+  public void uncommittedSnapshotIsDropped() throws IOException {
+    Path file = directory.resolve("cache.snapshot");
+    try (SnapshotWriter<String, String> writer = new SnapshotWriter<>(file, new StringCodec(), new StringCodec())) {
+      writer.write(new SnapshotEntry<>("13", "Kyiv", 0, 100));
+    }
+    assertFalse(Files.exists(file));
+    assertFalse(Files.exists(directory.resolve("cache.snapshot.tmp")));
+  }
+
+  @Test
+  public void truncatedSnapshotIsRejected() throws IOException {
+    Path file = directory.resolve("cache.snapshot");
+    try (SnapshotWriter<String, String> writer = new SnapshotWriter<>(file, new StringCodec(), new StringCodec())) {
+      writer.write(new SnapshotEntry<>("13", "Kyiv", 0, 100));
+      writer.commit();
+    }
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+    try (SnapshotReader<String, String> reader = new SnapshotReader<>(file, new StringCodec(), new StringCodec())) {
+      assertThrows(IOException.class, () -> reader.forEach(entry -> {}));
+    }
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    assertThrows(IOException.class, () -> new SnapshotReader<>(file, new StringCodec(), new StringCodec()));
+  }
+}
@@ -0,0 +1,100 @@
+package com.sanik.cache.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.cache.MFUCache;
+import com.sanik.cache.codec.StringCodec;
+import java.io.IOException;
+import java.time.Duration;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteBehindLogTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void cacheSurvivesRestart() throws IOException {
+    MFUCache<String, String> cache = new MFUCache<>(100, 1, 60_000);
+    WriteBehindLog<String, String> log = openLog();
+    assertEquals(0, cache.setWriteBehindLog(log));
+    for (int i = 0; i < 200; i++) {
+      cache.put("key" + (i % 50), "value" + i);
+    }
+    cache.remove("key7");
+    cache.put("key8", "last");
+    log.flush();
+    cache.close();
+    log.close();
+    //compaction runs by own thread, close waits for it
+    assertTrue(log.closedSegmentCount() < 4);
+
+    MFUCache<String, String> restarted = new MFUCache<>(100, 1, 60_000);
+    WriteBehindLog<String, String> reopened = openLog();
+    assertEquals(49, restarted.setWriteBehindLog(reopened));
+    assertNull(restarted.get("key7"));
+    assertEquals("last", restarted.get("key8"));
+    assertEquals("value199", restarted.get("key49"));
+    assertEquals("value150", restarted.get("key0"));
+    restarted.close();
+    reopened.close();
+  }
+
+  @Test
+  public void tornRecordIsIgnored() throws IOException {
+    try (WriteBehindLog<String, String> log = openLog()) {
+      log.put("13", "Kyiv", System.currentTimeMillis());
+      log.put("94", "Buda", System.currentTimeMillis());
+    }
+    Path last;
+    try (Stream<Path> files = Files.list(directory)) {
+      List<Path> segments = files.sorted().collect(Collectors.toList());
+      last = segments.get(segments.size() - 1);
+    }
+    Files.write(last, new byte[] {0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+    try (WriteBehindLog<String, String> log = openLog()) {
+      List<String> keys = log.recover().stream().map(SnapshotEntry::getKey).collect(Collectors.toList());
+      assertEquals(List.of("13", "94"), keys);
+    }
+  }
+
+  @Test
+  public void closedLogDoesntBreakCache() throws IOException {
+    MFUCache<String, String> cache = new MFUCache<>(100, 1, 60_000);
+    WriteBehindLog<String, String> log = openLog();
+    cache.setWriteBehindLog(log);
+    cache.put("1", "a");
+    log.close();
+
+    cache.put("2", "b");
+    cache.put("1", "b");
+    assertEquals("b", cache.remove("1"));
+    assertEquals(1, cache.size());
+    assertEquals("b", cache.get("2"));
+    assertEquals(3, log.droppedCount());
+    assertNull(log.getFailure());
+    cache.close();
+  }
+
+  @Test
+  public void flushAfterCloseReturns() throws IOException {
+    WriteBehindLog<String, String> log = openLog();
+    for (int i = 0; i < 100; i++) {
+      log.put("key" + i, "value" + i, System.currentTimeMillis());
+    }
+    log.close();
+    assertTimeoutPreemptively(Duration.ofSeconds(3), log::flush);
+  }
+
+  private WriteBehindLog<String, String> openLog() throws IOException {
+    return new WriteBehindLog<>(directory, new StringCodec(), new StringCodec(), 16, 256, 3);
+  }
+}
@@ -0,0 +1,36 @@
+package com.sanik.cache.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyRecorderTest {
+
+  @Test
+  public void percentilesByBuckets() {
+    LatencyRecorder recorder = new LatencyRecorder();
+    for (int i = 0; i < 99; i++) {
+      recorder.record(100);
+    }
+    recorder.record(1_000_000);
+    recorder.record(0);
+
+    LatencyHistogram histogram = recorder.snapshot();
+    assertEquals(101, histogram.getCount());
+    assertEquals(99 * 100 + 1_000_000, histogram.getTotalNanos());
+    assertEquals(1, histogram.getBucketCount(0));
+    assertEquals(99, histogram.getBucketCount(7));
+    assertEquals(0, histogram.getPercentileNanos(0));
+    assertEquals(127, histogram.getPercentileNanos(50));
+    assertEquals(127, histogram.getPercentileNanos(99));
+    assertEquals((1 << 20) - 1, histogram.getPercentileNanos(100));
+  }
+
+  @Test
+  public void emptyHistogram() {
+    LatencyHistogram histogram = new LatencyRecorder().snapshot();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMeanNanos());
+    assertEquals(0, histogram.getPercentileNanos(99));
+  }
+}
@@ -0,0 +1,36 @@
+package com.sanik.cache.ticker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sanik.maintenance.MaintenanceScheduler;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CoarseTickerTest {
+
+  @Test
+  public void followsSystemClockUntilClosed() throws InterruptedException {
+    CoarseTicker ticker = new CoarseTicker(5, TimeUnit.MILLISECONDS, MaintenanceScheduler.shared());
+    long start = ticker.currentTimeMillis();
+    assertTrue(Math.abs(System.currentTimeMillis() - start) < 1_000);
+
+    TimeUnit.MILLISECONDS.sleep(100);
+    long moved = ticker.currentTimeMillis();
+    assertTrue(moved > start);
+    assertTrue(System.currentTimeMillis() - moved < 1_000);
+
+    ticker.close();
+    TimeUnit.MILLISECONDS.sleep(50);
+    long stopped = ticker.currentTimeMillis();
+    TimeUnit.MILLISECONDS.sleep(50);
+    assertEquals(stopped, ticker.currentTimeMillis());
+  }
+
+  @Test
+  public void fakeTickerMovesOnlyManually() {
+    FakeTicker ticker = new FakeTicker(1_000);
+    assertEquals(1_000, ticker.currentTimeMillis());
+    ticker.advance(2, TimeUnit.SECONDS).advance(5, TimeUnit.MILLISECONDS);
+    assertEquals(3_005, ticker.currentTimeMillis());
+  }
+}
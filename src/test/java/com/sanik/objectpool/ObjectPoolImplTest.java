@@ -2,8 +2,11 @@ package com.sanik.objectpool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.sanik.maintenance.ExecutorMaintenanceScheduler;
+import com.sanik.maintenance.MaintenanceScheduler;
 import java.io.IOException;
 import java.lang.Thread.State;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -145,6 +148,45 @@ class ObjectPoolImplTest {
     }
   }
 
+  @Test
+  public void rejectedObjectIsReplaced() throws Exception {
+    ExecutorService creator = Executors.newSingleThreadExecutor();
+    try (ObjectPoolImpl<A> objectPool = new ObjectPoolImpl<>(A::new, 1, 1)) {
+      objectPool.setCreationExecutor(creator);
+      objectPool.setVerificationPolicy(a -> false);
+      for (int i = 0; i < 20; i++) {
+        A first = objectPool.borrow();
+        objectPool.release(first);
+        A second = assertTimeoutPreemptively(Duration.ofSeconds(3),
+            () -> objectPool.borrow());
+        assertNotSame(first, second);
+        objectPool.release(second);
+      }
+    } finally {
+      creator.shutdownNow();
+    }
+  }
+
+  @Test
+  public void manyPoolsShareScheduler() throws IOException {
+    MaintenanceScheduler scheduler = new ExecutorMaintenanceScheduler(1);
+    int threadsBefore = Thread.activeCount();
+    List<ObjectPool<StringBuilder>> pools = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      pools.add(new ObjectPoolImpl<>(StringBuilder::new, 1, 2, scheduler));
+    }
+    for (ObjectPool<StringBuilder> pool : pools) {
+      StringBuilder borrowed = pool.borrow();
+      assertNotNull(borrowed);
+      pool.release(borrowed);
+      assertSame(borrowed, pool.borrow());
+    }
+    assertTrue(Thread.activeCount() - threadsBefore <= 1);
+    for (ObjectPool<StringBuilder> pool : pools) {
+      pool.close();
+    }
+  }
+
   @Test
   public void testManyThreads() throws InterruptedException, IOException {
     ExecutorService service = Executors.newFixedThreadPool(100);